@@ -0,0 +1,95 @@
+package benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * A fixed table of rows exposed as a forward-only {@link ResultSet}, so the row mapping code can
+ * be measured without a database or network. Only the methods the DAO layer calls are
+ * implemented; everything else throws {@link UnsupportedOperationException}.
+ * <p>
+ * The result set is a dynamic proxy, so every call pays a small dispatch cost. That cost is the
+ * same for every mapping strategy measured against it.
+ */
+public class InMemoryResultSet {
+    private final String[] columns;
+    private final Object[][] rows;
+    private final ResultSet resultSet;
+    private final ResultSetMetaData metaData;
+    private int cursor = -1;
+    private boolean wasNull;
+
+    public InMemoryResultSet(String[] columns, Object[][] rows) {
+        this.columns = columns;
+        this.rows = rows;
+        this.metaData = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> columns.length;
+                    case "getColumnLabel", "getColumnName" -> columns[(Integer) args[0] - 1];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        this.resultSet = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> ++cursor < rows.length;
+                    case "getMetaData" -> metaData;
+                    case "wasNull" -> wasNull;
+                    case "close" -> null;
+                    case "isClosed" -> false;
+                    case "getInt" -> {
+                        Object value = read(args[0]);
+                        yield Objects.isNull(value) ? 0 : ((Number) value).intValue();
+                    }
+                    case "getLong" -> {
+                        Object value = read(args[0]);
+                        yield Objects.isNull(value) ? 0L : ((Number) value).longValue();
+                    }
+                    case "getDouble" -> {
+                        Object value = read(args[0]);
+                        yield Objects.isNull(value) ? 0.0 : ((Number) value).doubleValue();
+                    }
+                    case "getString" -> (String) read(args[0]);
+                    case "getBigDecimal" -> (BigDecimal) read(args[0]);
+                    case "getObject" -> read(args[0]);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryResultSet";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    public ResultSet resultSet() {
+        return resultSet;
+    }
+
+    /**
+     * Moves the cursor back before the first row.
+     */
+    public void rewind() {
+        cursor = -1;
+    }
+
+    private Object read(Object column) throws SQLException {
+        int index;
+        if (column instanceof Integer) {
+            index = (Integer) column - 1;
+        } else {
+            index = indexOf((String) column);
+        }
+        Object value = rows[cursor][index];
+        wasNull = Objects.isNull(value);
+        return value;
+    }
+
+    private int indexOf(String label) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equalsIgnoreCase(label)) {
+                return i;
+            }
+        }
+        throw new SQLException("Column '" + label + "' not found.");
+    }
+}
@@ -0,0 +1,128 @@
+package benchmarks;
+
+import entity.Material;
+import entity.Project;
+import entity.Step;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import projects.dao.ProjectDao;
+import projects.dao.SchemaMigrator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmarks of the {@link ProjectDao} paths through the connection pool, run against
+ * an embedded H2 database in MySQL mode that stands in for MySQL. Absolute numbers are not
+ * comparable with a networked MySQL server, but regressions in the Java side of each path are.
+ * <p>
+ * The schema is built by {@link SchemaMigrator}, as it is for the application. H2 cannot run
+ * several statements in one round trip, so {@code fetchProjectById} measures the one query at a
+ * time graph load; {@link benchmarks.mysql.ProjectDaoBenchmark}, built with {@code -Pmysql},
+ * measures the same paths against MySQL.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectDaoBenchmark {
+    private static final String URL = "jdbc:h2:mem:projects;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Param({"1000"})
+    public int projectCount;
+
+    @Param({"10"})
+    public int childrenPerProject;
+
+    private ProjectDao projectDao;
+    private int firstProjectId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        createSchema();
+
+        projectDao = new ProjectDao();
+        List<Project> projects = new ArrayList<>(projectCount);
+        for (int i = 0; i < projectCount; i++) {
+            projects.add(newProject(i));
+        }
+        projectDao.insertProjects(projects);
+        firstProjectId = projects.get(0).getProjectId();
+        for (Project project : projects) {
+            projectDao.addMaterials(project.getProjectId(), newMaterials());
+            projectDao.addSteps(project.getProjectId(), newSteps());
+        }
+    }
+
+    /**
+     * Points the DAO at the benchmark database and builds an empty, fully migrated schema in it.
+     */
+    protected void createSchema() throws Exception {
+        /* Must be set before DbConnection is initialized. */
+        System.setProperty("projects.db.url", URL);
+        new SchemaMigrator().migrate();
+    }
+
+    @Benchmark
+    public Object fetchProjectById() {
+        int projectId = firstProjectId + ThreadLocalRandom.current().nextInt(projectCount);
+        return projectDao.fetchProjectById(projectId);
+    }
+
+    @Benchmark
+    public Object fetchAllProjects() {
+        return projectDao.fetchAllProjects();
+    }
+
+    @Benchmark
+    public Object insertProject() {
+        return projectDao.insertProject(newProject(ThreadLocalRandom.current().nextInt()));
+    }
+
+    private static Project newProject(int i) {
+        Project project = new Project();
+        project.setProjectName("Project " + i);
+        project.setEstimatedHours(new BigDecimal("12.50"));
+        project.setActualHours(new BigDecimal("14.25"));
+        project.setDifficulty(Math.floorMod(i, 5) + 1);
+        project.setNotes("Notes for project " + i);
+        return project;
+    }
+
+    private List<Material> newMaterials() {
+        List<Material> materials = new ArrayList<>(childrenPerProject);
+        for (int i = 1; i <= childrenPerProject; i++) {
+            Material material = new Material();
+            material.setMaterialName("Material " + i);
+            material.setNumRequired(i);
+            material.setCost(new BigDecimal("3.99"));
+            materials.add(material);
+        }
+        return materials;
+    }
+
+    private List<Step> newSteps() {
+        List<Step> steps = new ArrayList<>(childrenPerProject);
+        for (int i = 1; i <= childrenPerProject; i++) {
+            Step step = new Step();
+            step.setStepText("Step " + i);
+            steps.add(step);
+        }
+        return steps;
+    }
+}
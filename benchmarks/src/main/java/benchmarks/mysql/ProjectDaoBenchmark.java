@@ -0,0 +1,55 @@
+package benchmarks.mysql;
+
+import projects.dao.ProjectDao;
+import projects.dao.SchemaMigrator;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Objects;
+
+/**
+ * The {@link benchmarks.ProjectDaoBenchmark} paths against a real MySQL database. Built only with
+ * {@code -Pmysql}, and run with the database given by {@code -Dprojects.db.url}, which should use
+ * the same options as the application's own URL:
+ *
+ * <pre>
+ * java -Dprojects.db.url="jdbc:mysql://localhost:3306/projects_bench?user=...&amp;password=...&amp;rewriteBatchedStatements=true&amp;useServerPrepStmts=true" \
+ *      -jar benchmarks/target/benchmarks.jar mysql.ProjectDaoBenchmark
+ * </pre>
+ *
+ * <b>The schema in that database is dropped.</b> It is recreated the way a developer database is:
+ * DiyProjects.sql for the baseline, then {@link SchemaMigrator} for every migration. The DAO runs
+ * with its default settings, so {@code fetchProjectById} measures the single round trip
+ * {@link ProjectDao} fetch.
+ */
+public class ProjectDaoBenchmark extends benchmarks.ProjectDaoBenchmark {
+    @Override
+    protected void createSchema() throws Exception {
+        String url = System.getProperty("projects.db.url");
+        if (Objects.isNull(url) || !url.startsWith("jdbc:mysql:")) {
+            throw new IllegalStateException("Set -Dprojects.db.url to a scratch MySQL database URL;"
+                    + " its schema is dropped and recreated.");
+        }
+        resetSchema(url);
+        new SchemaMigrator().migrate();
+    }
+
+    /* Runs DiyProjects.sql, which drops every table and creates the V1 baseline. */
+    private static void resetSchema(String url) throws Exception {
+        String script;
+        try (InputStream in = Objects.requireNonNull(ProjectDaoBenchmark.class.getResourceAsStream("/DiyProjects.sql"))) {
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            for (String sql : script.split(";\\s*(\\r?\\n|$)")) {
+                if (!sql.isBlank()) {
+                    stmt.execute(sql);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package provided.util;
+
+import benchmarks.InMemoryResultSet;
+import entity.Material;
+import entity.Project;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks for the {@link DaoBase} helpers on the DAO hot path, run against an in-memory
+ * result set so only the Java side is measured. Lives in {@code provided.util} to reach the
+ * protected and package-private helpers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DaoBaseBenchmark {
+    private static final String[] PROJECT_COLUMNS =
+            {"project_id", "project_name", "estimated_hours", "actual_hours", "difficulty", "notes"};
+    private static final String[] MATERIAL_COLUMNS =
+            {"material_id", "project_id", "material_name", "num_required", "cost"};
+
+    @Param({"100"})
+    public int rows;
+
+    private final BenchmarkDao dao = new BenchmarkDao();
+    private InMemoryResultSet projectRows;
+    private InMemoryResultSet materialRows;
+    private PreparedStatement statement;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Object[][] projects = new Object[rows][];
+        Object[][] materials = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            projects[i] = new Object[]{i + 1, "Project " + i, new BigDecimal("12.50"), new BigDecimal("14.25"),
+                    (i % 5) + 1, "Notes for project " + i};
+            materials[i] = new Object[]{i + 1, 1, "Material " + i, i % 10, new BigDecimal("3.99")};
+        }
+        projectRows = new InMemoryResultSet(PROJECT_COLUMNS, projects);
+        materialRows = new InMemoryResultSet(MATERIAL_COLUMNS, materials);
+        statement = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> null);
+    }
+
+    /** One extract() call per row, which resolves the cached mapper from the metadata every time. */
+    @Benchmark
+    public void extractProjectsPerRow(Blackhole blackhole) throws SQLException {
+        projectRows.rewind();
+        ResultSet rs = projectRows.resultSet();
+        while (rs.next()) {
+            blackhole.consume(dao.extract(rs, Project.class));
+        }
+    }
+
+    /** The mapper is looked up once and reused for every row. */
+    @Benchmark
+    public void mapProjectsWithRowMapper(Blackhole blackhole) throws SQLException {
+        projectRows.rewind();
+        ResultSet rs = projectRows.resultSet();
+        RowMapper<Project> mapper = dao.rowMapper(rs, Project.class);
+        while (rs.next()) {
+            blackhole.consume(mapper.map(rs));
+        }
+    }
+
+    @Benchmark
+    public void mapMaterialsWithRowMapper(Blackhole blackhole) throws SQLException {
+        materialRows.rewind();
+        ResultSet rs = materialRows.resultSet();
+        RowMapper<Material> mapper = dao.rowMapper(rs, Material.class);
+        while (rs.next()) {
+            blackhole.consume(mapper.map(rs));
+        }
+    }
+
+    @Benchmark
+    public String camelCaseToSnakeCase() {
+        return RowMapper.camelCaseToSnakeCase("estimatedHours");
+    }
+
+    @Benchmark
+    public void setProjectParameters() throws SQLException {
+        dao.setParameter(statement, 1, "Project", String.class);
+        dao.setParameter(statement, 2, new BigDecimal("12.50"), BigDecimal.class);
+        dao.setParameter(statement, 3, null, BigDecimal.class);
+        dao.setParameter(statement, 4, 3, Integer.class);
+        dao.setParameter(statement, 5, "Notes", String.class);
+    }
+
+    private static class BenchmarkDao extends DaoBase {
+    }
+}
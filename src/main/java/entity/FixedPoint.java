@@ -0,0 +1,48 @@
+/**
+ *
+ */
+package entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions for the fixed-point ints used by the read model records ({@link ProjectView} and
+ * its children). Hours and costs are DECIMAL(7, 2) columns, so they are held as an int count of
+ * hundredths: 12.50 hours is 1250. A null column, and any other nullable int column in the read
+ * model, is held as {@link #NULL}.
+ */
+public final class FixedPoint {
+  public static final int SCALE = 2;
+  public static final int NULL = Integer.MIN_VALUE;
+
+  private FixedPoint() {
+  }
+
+  /**
+   * This converts a decimal to hundredths, rounding half up past the second decimal place.
+   *
+   * @param value The value, or null
+   * @return The value in hundredths, or {@link #NULL}
+   */
+  public static int fromBigDecimal(BigDecimal value) {
+    if(value == null) {
+      return NULL;
+    }
+    return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().intValueExact();
+  }
+
+  /**
+   * This converts hundredths back to a decimal with two decimal places.
+   *
+   * @param hundredths The value in hundredths, or {@link #NULL}
+   * @return The decimal, or null
+   */
+  public static BigDecimal toBigDecimal(int hundredths) {
+    return hundredths == NULL ? null : BigDecimal.valueOf(hundredths, SCALE);
+  }
+
+  public static boolean isNull(int value) {
+    return value == NULL;
+  }
+}
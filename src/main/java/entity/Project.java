@@ -18,6 +18,7 @@ public class Project {
     private BigDecimal actualHours;
     private Integer difficulty;
     private String notes;
+    private Integer version;
 
     private List<Material> materials = new LinkedList<>();
     private List<Step> steps = new LinkedList<>();
@@ -71,6 +72,14 @@ public class Project {
         this.notes = notes;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     public List<Material> getMaterials() {
         return materials;
     }
@@ -0,0 +1,33 @@
+/**
+ *
+ */
+package entity;
+
+/**
+ * One row of the project_category join table: the project is in the category.
+ */
+public class ProjectCategory {
+  private Integer projectId;
+  private Integer categoryId;
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public Integer getCategoryId() {
+    return categoryId;
+  }
+
+  public void setCategoryId(Integer categoryId) {
+    this.categoryId = categoryId;
+  }
+
+  @Override
+  public String toString() {
+    return "projectId=" + projectId + ", categoryId=" + categoryId;
+  }
+}
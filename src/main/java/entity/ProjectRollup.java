@@ -0,0 +1,81 @@
+/**
+ *
+ */
+package entity;
+
+import java.math.BigDecimal;
+
+/**
+ * Precomputed cost and effort totals for one project, read from the project_rollup table.
+ */
+public class ProjectRollup {
+  private Integer projectId;
+  private BigDecimal materialCost;
+  private Integer materialCount;
+  private Integer stepCount;
+  private BigDecimal estimatedHours;
+  private BigDecimal actualHours;
+  private BigDecimal hoursVariance;
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public BigDecimal getMaterialCost() {
+    return materialCost;
+  }
+
+  public void setMaterialCost(BigDecimal materialCost) {
+    this.materialCost = materialCost;
+  }
+
+  public Integer getMaterialCount() {
+    return materialCount;
+  }
+
+  public void setMaterialCount(Integer materialCount) {
+    this.materialCount = materialCount;
+  }
+
+  public Integer getStepCount() {
+    return stepCount;
+  }
+
+  public void setStepCount(Integer stepCount) {
+    this.stepCount = stepCount;
+  }
+
+  public BigDecimal getEstimatedHours() {
+    return estimatedHours;
+  }
+
+  public void setEstimatedHours(BigDecimal estimatedHours) {
+    this.estimatedHours = estimatedHours;
+  }
+
+  public BigDecimal getActualHours() {
+    return actualHours;
+  }
+
+  public void setActualHours(BigDecimal actualHours) {
+    this.actualHours = actualHours;
+  }
+
+  public BigDecimal getHoursVariance() {
+    return hoursVariance;
+  }
+
+  public void setHoursVariance(BigDecimal hoursVariance) {
+    this.hoursVariance = hoursVariance;
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + projectId + ", materialCost=" + materialCost + ", materialCount=" + materialCount
+        + ", stepCount=" + stepCount + ", hoursVariance=" + hoursVariance;
+  }
+}
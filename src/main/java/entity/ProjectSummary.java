@@ -0,0 +1,34 @@
+/**
+ *
+ */
+package entity;
+
+/**
+ * A lightweight read model of a project for list views: just the ID and name, without the notes
+ * or any child rows.
+ */
+public class ProjectSummary {
+  private Integer projectId;
+  private String projectName;
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  @Override
+  public String toString() {
+    return projectId + ": " + projectName;
+  }
+}
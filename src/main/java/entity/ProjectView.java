@@ -0,0 +1,40 @@
+/**
+ *
+ */
+package entity;
+
+import java.util.List;
+
+/**
+ * An immutable, compact read model of a project and its children, for read paths that hold many
+ * projects in memory. Unlike {@link Project} it uses primitive ints (hours in fixed-point
+ * hundredths, see {@link FixedPoint}) and immutable array-backed child lists, so a loaded project
+ * is a handful of objects instead of dozens.
+ *
+ * @param estimatedHours Estimated hours in hundredths, or {@link FixedPoint#NULL}
+ * @param actualHours Actual hours in hundredths, or {@link FixedPoint#NULL}
+ * @param difficulty The difficulty, or {@link FixedPoint#NULL}
+ */
+public record ProjectView(int projectId, String projectName, int estimatedHours, int actualHours,
+    int difficulty, String notes, List<MaterialView> materials, List<StepView> steps,
+    List<CategoryView> categories) {
+
+  public ProjectView {
+    materials = List.copyOf(materials);
+    steps = List.copyOf(steps);
+    categories = List.copyOf(categories);
+  }
+
+  /**
+   * @param cost Cost per unit in hundredths, or {@link FixedPoint#NULL}
+   * @param numRequired The quantity, or {@link FixedPoint#NULL}
+   */
+  public record MaterialView(int materialId, String materialName, int numRequired, int cost) {
+  }
+
+  public record StepView(int stepId, String stepText, int stepOrder) {
+  }
+
+  public record CategoryView(int categoryId, String categoryName) {
+  }
+}
@@ -1,11 +1,14 @@
 package projects;
 
 import entity.Project;
+import entity.ProjectSummary;
+import projects.dao.SchemaMigrator;
 import projects.exceptions.DbException;
 import service.ProjectService;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Scanner;
 
@@ -62,7 +65,7 @@ public class ProjectsApp {
         Integer projectId = getIntInput("Enter the project ID of the project you want to delete.");
         String projectName = null;
         try {
-            projectName = projectService.fetchProjectById(projectId).getProjectName();
+            projectName = projectService.fetchProjectSummaryById(projectId).getProjectName();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -118,23 +121,44 @@ public class ProjectsApp {
         currentProject = projectService.fetchProjectById(projectId);
     }
 
+    /*
+     * Keeps the session's copy of the current project: a version lookup each time round the menu,
+     * and the graph is reloaded only if the project changed.
+     */
+    private void refreshCurrentProject() {
+        if (Objects.isNull(currentProject)) {
+            return;
+        }
+        try {
+            currentProject = projectService.refreshProject(currentProject);
+        } catch (NoSuchElementException e) {
+            System.out.println("\nProject " + currentProject.getProjectId() + " no longer exists.");
+            currentProject = null;
+        }
+    }
+
     private void listProjects() {
-        List<Project> projects = projectService.fetchAllProjects();
+        List<ProjectSummary> projects = projectService.fetchProjectSummaries();
         System.out.println("\nProjects: ");
         projects.forEach(project -> System.out.println(project.getProjectId() + ": " + project.getProjectName()));
     }
 
     private void printOperations() {
+        refreshCurrentProject();
         System.out.println("\nThese are the available selections. Press the Enter key to quit: ");
         operations.forEach(line -> System.out.println(" " + line));
         if (Objects.isNull(currentProject)) {
             System.out.println("\nYou are not working with a project at the moment.");
         } else {
-            System.out.println("\nYou are working with project: " + projectService.fetchProjectById(currentProject.getProjectId()));
+            System.out.println("\nYou are working with project: " + currentProject);
         }
     }
 
     public static void main(String[] args) {
+        /* Upgrade the schema in place before first use; -Dprojects.db.migrate=false skips it. */
+        if (Boolean.parseBoolean(System.getProperty("projects.db.migrate", "true"))) {
+            new SchemaMigrator().migrate();
+        }
         new ProjectsApp().processUserSelections();
     }
 
@@ -195,6 +219,7 @@ public class ProjectsApp {
     }
 
     private boolean exitMenu() {
+        projectService.saveSearchIndex();
         System.out.println("Goodbye!");
         return true;
     }
@@ -0,0 +1,296 @@
+package projects.dao;
+
+import projects.dao.metrics.DaoMetrics;
+import projects.exceptions.DbException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small bounded JDBC connection pool. Connections handed out by {@link #borrow()} are proxies
+ * whose {@code close()} returns the physical connection to the pool instead of closing it, so
+ * callers keep using try-with-resources exactly as they would with
+ * {@link DriverManager#getConnection(String)}.
+ * <p>
+ * At most {@code maxSize} connections are lent out at once; a borrower waits up to
+ * {@code maxWaitMillis} for one to come back before a {@link DbException} is thrown. Idle
+ * connections are validated on borrow and evicted once they have been idle longer than
+ * {@code idleTimeoutMillis}. Each physical connection keeps its own {@link StatementCache}, which
+ * is closed along with the connection.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final int maxSize;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final int statementCacheSize;
+    private final Semaphore permits;
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, int maxSize, long maxWaitMillis, long idleTimeoutMillis) {
+        this(url, maxSize, maxWaitMillis, idleTimeoutMillis, 0);
+    }
+
+    /**
+     * @param statementCacheSize The number of prepared statements cached per physical connection,
+     *                           or zero to disable statement caching. See {@link StatementCache}.
+     */
+    public ConnectionPool(String url, int maxSize, long maxWaitMillis, long idleTimeoutMillis,
+                          int statementCacheSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.url = url;
+        this.maxSize = maxSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new physical connection if no valid idle one
+     * is available. Closing the returned connection gives it back to the pool.
+     *
+     * @return A pooled connection with auto-commit on.
+     */
+    public Connection borrow() {
+        return borrow(() -> {});
+    }
+
+    /**
+     * Borrows a connection as {@link #borrow()} does, running {@code onReturn} once the connection
+     * has been handed back by its first {@code close()}.
+     */
+    public Connection borrow(Runnable onReturn) {
+        if (closed) {
+            throw new DbException("Connection pool is closed.");
+        }
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new DbException("Timed out after " + maxWaitMillis
+                        + "ms waiting for a connection (pool size " + maxSize + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DbException(e);
+        }
+
+        try {
+            return wrap(takeValidIdleOrOpen(), onReturn);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        synchronized (idle) {
+            idle.forEach(entry -> closeQuietly(entry.connection));
+            idle.clear();
+        }
+    }
+
+    private PhysicalConnection takeValidIdleOrOpen() {
+        long now = System.currentTimeMillis();
+        IdleConnection entry;
+        while ((entry = pollIdle()) != null) {
+            if (now - entry.idleSince > idleTimeoutMillis || !isValid(entry.connection.connection)) {
+                closeQuietly(entry.connection);
+                continue;
+            }
+            return entry.connection;
+        }
+        try {
+            Connection connection = DriverManager.getConnection(url);
+            return new PhysicalConnection(connection, new StatementCache(connection, statementCacheSize));
+        } catch (SQLException e) {
+            throw new DbException(e);
+        }
+    }
+
+    private IdleConnection pollIdle() {
+        synchronized (idle) {
+            return idle.pollFirst();
+        }
+    }
+
+    private void release(PhysicalConnection pooled) {
+        Connection physical = pooled.connection;
+        try {
+            if (closed || physical.isClosed()) {
+                closeQuietly(pooled);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (physical.isReadOnly()) {
+                physical.setReadOnly(false);
+            }
+            synchronized (idle) {
+                idle.addFirst(new IdleConnection(pooled, System.currentTimeMillis()));
+            }
+        } catch (SQLException e) {
+            closeQuietly(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        synchronized (idle) {
+            Iterator<IdleConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                IdleConnection entry = it.next();
+                if (entry.idleSince < cutoff) {
+                    it.remove();
+                    closeQuietly(entry.connection);
+                }
+            }
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(PhysicalConnection pooled) {
+        pooled.statements.closeAll();
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            /* Nothing useful can be done with a connection that fails to close. */
+        }
+    }
+
+    /* Only the (sql), (sql, autoGeneratedKeys) and (sql, resultSetType, resultSetConcurrency) overloads are cached. */
+    private static boolean isCacheable(Object[] args) {
+        for (int i = 1; i < args.length; i++) {
+            if (!(args[i] instanceof Integer)) {
+                return false;
+            }
+        }
+        return args.length <= 3;
+    }
+
+    private Connection wrap(PhysicalConnection physical, Runnable onReturn) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PooledHandler(physical, onReturn));
+    }
+
+    private record PhysicalConnection(Connection connection, StatementCache statements) {
+    }
+
+    private record IdleConnection(PhysicalConnection connection, long idleSince) {
+    }
+
+    /**
+     * Routes every call to the physical connection except {@code close()}, which hands the
+     * connection back to the pool exactly once, and {@code prepareStatement(...)}, which goes
+     * through the connection's statement cache. Other statements are wrapped by
+     * {@link StatementCache#countExecutions} so that their executions are counted. Once closed,
+     * only {@code close()}, {@code isClosed()} and the {@code Object} methods may be called.
+     */
+    private class PooledHandler implements InvocationHandler {
+        private final PhysicalConnection pooled;
+        private final Connection physical;
+        private final Runnable onReturn;
+        private boolean returned;
+
+        PooledHandler(PhysicalConnection pooled, Runnable onReturn) {
+            this.pooled = pooled;
+            this.physical = pooled.connection;
+            this.onReturn = onReturn;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                        onReturn.run();
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                default:
+                    /* The physical connection may already be lent to another caller. */
+                    if (returned && method.getDeclaringClass() != Object.class) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+            }
+            switch (method.getName()) {
+                case "prepareStatement":
+                    if (isCacheable(args)) {
+                        return pooled.statements.prepare(method, args);
+                    }
+                    break;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(physical)) {
+                        return physical;
+                    }
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement statement) {
+                return StatementCache.countExecutions(statement, method.getReturnType());
+            }
+            return result;
+        }
+    }
+}
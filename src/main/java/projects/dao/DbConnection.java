@@ -1,10 +1,14 @@
 package projects.dao;
 
+import projects.dao.metrics.DaoMetrics;
 import projects.exceptions.DbException;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 public class DbConnection {
     private static final String SCHEMA = "projects";
@@ -13,16 +17,219 @@ public class DbConnection {
     private static final String HOST = "localhost";
     private static final int PORT = 3306;
 
+    private static final int POOL_MAX_SIZE = Integer.getInteger("projects.pool.maxSize", 10);
+    private static final long POOL_MAX_WAIT_MILLIS = Long.getLong("projects.pool.maxWaitMillis", 5_000L);
+    private static final long POOL_IDLE_TIMEOUT_MILLIS = Long.getLong("projects.pool.idleTimeoutMillis", 300_000L);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("projects.pool.statementCacheSize", 64);
+
+    private static final String URL_OPTIONS = "useSSL=false&rewriteBatchedStatements=true"
+            + "&useServerPrepStmts=true&readOnlyPropagatesToServer=false&useLocalSessionState=true";
+
+    /*
+     * Only the multi-statement pools allow several statements in one execute. The DAO borrows
+     * from them for its batched reads, whose SQL is fixed, so a value concatenated into SQL
+     * anywhere else cannot stack a second statement. They are created on first use, sized by
+     * -Dprojects.pool.multiStatementMaxSize, and only for MySQL URLs.
+     */
+    private static final String MULTI_STATEMENT_OPTION = "allowMultiQueries=true";
+    private static final int MULTI_STATEMENT_POOL_MAX_SIZE =
+            Integer.getInteger("projects.pool.multiStatementMaxSize", Math.max(1, POOL_MAX_SIZE / 2));
+
+    /*
+     * Read replicas, as a whitespace-separated list of host:port pairs or full JDBC URLs, e.g.
+     * -Dprojects.db.replicas="replica1:3306 replica2:3306". Reads are spread across them using
+     * -Dprojects.db.replicaPolicy (ROUND_ROBIN, RANDOM or LEAST_ACTIVE).
+     */
+    private static final String REPLICAS = System.getProperty("projects.db.replicas", "");
+    private static final String REPLICA_POLICY = System.getProperty("projects.db.replicaPolicy", "ROUND_ROBIN");
+    private static final long READ_YOUR_WRITES_MILLIS = Long.getLong("projects.db.readYourWritesMillis", 5_000L);
+
+    /* -Dprojects.db.url points the primary at another database, e.g. an embedded one for benchmarks. */
+    private static final String PRIMARY_URL = System.getProperty("projects.db.url", mysqlUrl(HOST, PORT));
+    private static final List<String> REPLICA_URLS = replicaUrls();
+    private static final boolean MULTI_STATEMENT_READS = isMysqlUrl(PRIMARY_URL)
+            && REPLICA_URLS.stream().allMatch(DbConnection::isMysqlUrl);
+
+    /* Created on first use so that merely loading the class does not start the evictor threads. */
+    private static class RouterHolder {
+        private static final ReplicaRouter ROUTER = createRouter();
+    }
+
+    private static class MultiStatementRouterHolder {
+        private static final ReplicaRouter ROUTER = createMultiStatementRouter();
+    }
+
+    /* Run at shutdown before the pools close, while connections can still be borrowed. */
+    private static final List<Runnable> SHUTDOWN_TASKS = new CopyOnWriteArrayList<>();
+    private static volatile ReplicaRouter createdRouter;
+    private static volatile ReplicaRouter createdMultiStatementRouter;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DbConnection::shutdown, "connection-pool-shutdown"));
+    }
+
+    private static ReplicaRouter createRouter() {
+        List<ConnectionPool> replicas = new ArrayList<>();
+        for (String replicaUrl : REPLICA_URLS) {
+            replicas.add(createPool(replicaUrl, POOL_MAX_SIZE));
+        }
+        ReplicaRouter router = new ReplicaRouter(createPool(PRIMARY_URL, POOL_MAX_SIZE), replicas,
+                ReplicaRouter.Policy.valueOf(REPLICA_POLICY), READ_YOUR_WRITES_MILLIS);
+        createdRouter = router;
+        return router;
+    }
+
+    private static ReplicaRouter createMultiStatementRouter() {
+        List<ConnectionPool> replicas = new ArrayList<>();
+        for (String replicaUrl : REPLICA_URLS) {
+            replicas.add(createPool(withOption(replicaUrl, MULTI_STATEMENT_OPTION), MULTI_STATEMENT_POOL_MAX_SIZE));
+        }
+        ReplicaRouter router = RouterHolder.ROUTER.withPools(
+                createPool(withOption(PRIMARY_URL, MULTI_STATEMENT_OPTION), MULTI_STATEMENT_POOL_MAX_SIZE), replicas);
+        createdMultiStatementRouter = router;
+        return router;
+    }
+
+    private static List<String> replicaUrls() {
+        List<String> urls = new ArrayList<>();
+        for (String replica : REPLICAS.trim().split("\\s+")) {
+            if (!replica.isEmpty()) {
+                urls.add(replica.startsWith("jdbc:") ? replica : mysqlUrl(replica));
+            }
+        }
+        return urls;
+    }
+
+    private static void shutdown() {
+        for (Runnable task : SHUTDOWN_TASKS) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Shutdown task failed: " + e);
+            }
+        }
+        for (ReplicaRouter router : new ReplicaRouter[] {createdMultiStatementRouter, createdRouter}) {
+            if (Objects.nonNull(router)) {
+                router.close();
+            }
+        }
+    }
+
+    private static ConnectionPool createPool(String url, int maxSize) {
+        return new ConnectionPool(url, maxSize, POOL_MAX_WAIT_MILLIS, POOL_IDLE_TIMEOUT_MILLIS,
+                STATEMENT_CACHE_SIZE);
+    }
+
+    private static boolean isMysqlUrl(String url) {
+        return url.startsWith("jdbc:mysql:");
+    }
+
+    private static String withOption(String url, String option) {
+        return url + (url.indexOf('?') < 0 ? "?" : "&") + option;
+    }
+
+    private static String mysqlUrl(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        return colon < 0
+                ? mysqlUrl(hostAndPort, PORT)
+                : mysqlUrl(hostAndPort.substring(0, colon), Integer.parseInt(hostAndPort.substring(colon + 1)));
+    }
+
+    private static String mysqlUrl(String host, int port) {
+        return String.format("jdbc:mysql://%s:%d/%s?user=%s&password=%s&%s", host, port, SCHEMA, USER, PASSWORD,
+                URL_OPTIONS);
+    }
+
+    /**
+     * Borrows a connection from the primary pool. Use it for anything that writes. Closing the
+     * connection returns it to the pool.
+     */
     public static Connection getConnection() {
-        String url =
-                String.format("jdbc:mysql://%s:%d/%s?user=%s&password=%s&useSSL=false", HOST, PORT, SCHEMA, USER, PASSWORD);
-        System.out.println("Connecting with" + url);
+        long start = System.nanoTime();
         try {
-            Connection conn = DriverManager.getConnection(url);
-            System.out.println("Successfully Connected");
-            return conn;
-        } catch (SQLException e) {
-            throw new DbException(e);
+            return RouterHolder.ROUTER.borrowForWrite();
+        } finally {
+            DaoMetrics.recordConnectionAcquire(System.nanoTime() - start);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Borrows a connection for read-only work. It comes from a read replica when any are
+     * configured, unless the current session wrote recently, in which case it comes from the
+     * primary so the session reads its own writes.
+     */
+    public static Connection getReadConnection() {
+        long start = System.nanoTime();
+        try {
+            return RouterHolder.ROUTER.borrowForRead();
+        } finally {
+            DaoMetrics.recordConnectionAcquire(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs {@code body} with the reads it makes on this thread sent to the primary, even when read
+     * replicas are configured. See {@link ReplicaRouter#readFromPrimary(Supplier)}.
+     */
+    public static <T> T readFromPrimary(Supplier<T> body) {
+        return RouterHolder.ROUTER.readFromPrimary(body);
+    }
+
+    /**
+     * Whether {@link #getMultiStatementReadConnection()} is available, which it is when the
+     * database is MySQL. Callers send their queries one at a time otherwise.
+     */
+    public static boolean supportsMultiStatementReads() {
+        return MULTI_STATEMENT_READS;
+    }
+
+    /**
+     * Borrows a connection for read-only work that allows several statements in one execute, from
+     * the primary or a replica exactly as {@link #getReadConnection()} would choose. Only use it
+     * for fixed SQL with every value bound as a parameter.
+     *
+     * @throws DbException if the database is not MySQL; see {@link #supportsMultiStatementReads()}.
+     */
+    public static Connection getMultiStatementReadConnection() {
+        if (!MULTI_STATEMENT_READS) {
+            throw new DbException("Multi-statement reads need a MySQL database");
+        }
+        long start = System.nanoTime();
+        try {
+            return MultiStatementRouterHolder.ROUTER.borrowForRead();
+        } finally {
+            DaoMetrics.recordConnectionAcquire(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the current thread's read-your-writes session. Work done on other threads for this
+     * caller should run with it bound, see {@link #bindSession(ReplicaRouter.Session)}.
+     */
+    public static ReplicaRouter.Session currentSession() {
+        return RouterHolder.ROUTER.currentSession();
+    }
+
+    /**
+     * Binds a session to the current thread and returns the previous one, to bind again after.
+     */
+    public static ReplicaRouter.Session bindSession(ReplicaRouter.Session session) {
+        return RouterHolder.ROUTER.bindSession(session);
+    }
+
+    /**
+     * Registers a task to run when the JVM shuts down, before the connection pools are closed,
+     * e.g. to flush buffered writes. Tasks run in registration order.
+     */
+    public static void runBeforeShutdown(Runnable task) {
+        SHUTDOWN_TASKS.add(task);
+    }
+
+    public static ConnectionPool getPool() {
+        return RouterHolder.ROUTER.getPrimary();
+    }
+
+    public static ReplicaRouter getRouter() {
+        return RouterHolder.ROUTER;
+    }
+}
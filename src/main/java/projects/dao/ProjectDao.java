@@ -2,18 +2,36 @@ package projects.dao;
 
 import com.mysql.cj.jdbc.ConnectionImpl;
 import entity.Category;
+import entity.FixedPoint;
 import entity.Material;
 import entity.Project;
+import entity.ProjectCategory;
+import entity.ProjectSummary;
+import entity.ProjectView;
 import entity.Step;
+import projects.dao.metrics.DaoMetrics;
 import projects.exceptions.DbException;
 import provided.util.DaoBase;
+import provided.util.RowMapper;
 
 import java.math.BigDecimal;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ProjectDao extends DaoBase {
 
@@ -23,96 +41,1020 @@ public class ProjectDao extends DaoBase {
     private static final String PROJECT_CATEGORY_TABLE = "project_category";
     private static final String STEP_TABLE = "step";
 
+    private static final String INSERT_PROJECT_SQL = ""
+            + "INSERT INTO " + PROJECT_TABLE
+            + " (project_name, estimated_hours, actual_hours, difficulty, notes) "
+            + "VALUES "
+            + "(?, ?, ?, ?, ?)";
+
+    private static final String MODIFY_PROJECT_SQL = ""
+            + "UPDATE " + PROJECT_TABLE + " SET "
+            + "project_name = ?, "
+            + "estimated_hours = ?,"
+            + "actual_hours = ?,"
+            + "difficulty = ?,"
+            + "notes = ?, "
+            + "version = version + 1 "
+            + "WHERE project_id = ?";
+
+    /* Rows per executeBatch call; keeps each rewritten multi-row INSERT well under max_allowed_packet. */
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    /* Fetch size for streaming from databases other than MySQL, which streams row by row. */
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    /* Upper bound on the number of IDs bound into a single IN list. */
+    private static final int IN_LIST_CHUNK_SIZE = 500;
+
+    /*
+     * When true and the database is MySQL, fetchProjectById loads the project and its children
+     * with one multi-statement round trip, and the batched fetches send each chunk's four queries
+     * as one. Set -Dprojects.dao.singleRoundTripFetch=false to go back to one query per table,
+     * e.g. behind a proxy that does not support multi-statements.
+     */
+    private static final boolean SINGLE_ROUND_TRIP_FETCH =
+            Boolean.parseBoolean(System.getProperty("projects.dao.singleRoundTripFetch", "true"));
+
+    private static final Map<Integer, ProjectView.CategoryView> CATEGORY_VIEWS = new ConcurrentHashMap<>();
+
+    private final ProjectRollupDao rollupDao = new ProjectRollupDao();
+    private final StepDao stepDao = new StepDao();
+
 
     public Optional<Project> fetchProjectById(Integer projectId) {
-        String sql = "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id = ?";
-        try (Connection connection = DbConnection.getConnection()) {
-            startTransaction(connection);
-            try {
-                Project project = null;
+        boolean multiStatement = multiStatementReads();
+        return DaoMetrics.time("fetchProjectById", () -> {
+            try (Connection connection = getBatchReadConnection(multiStatement)) {
+                startReadOnly(connection);
                 try {
-                    try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-                        setParameter(preparedStatement, 1, projectId, Integer.class);
-                        try (ResultSet rs = preparedStatement.executeQuery()) {
-                            if (rs.next()) {
-                                project = extract(rs, Project.class);
-                            }
-                        }
+                    if (multiStatement) {
+                        return fetchProjectGraphInOneRoundTrip(connection, projectId);
                     }
-                    if (Objects.nonNull(project)) {
-                        project.getMaterials().addAll(fetchMaterialsByProjectId(connection, projectId));
-                        project.getSteps().addAll(fetchStepsByProjectId(connection, projectId));
-                        project.getCategories().addAll(fetchCategoriesByProjectId(connection, projectId));
+                    startReadOnlyTransaction(connection);
+                    Optional<Project> project = fetchProjectGraphPerTable(connection, projectId);
+                    commitReadOnlyTransaction(connection);
+                    return project;
+                } catch (Exception e) {
+                    rollbackReadOnlyTransaction(connection);
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Sends the project query and the three child queries as one multi-statement batch and reads
+     * the four result sets back in order, so the whole graph costs a single network round trip.
+     * The batch opens and commits its own read-only, consistent-snapshot transaction, so the four
+     * queries see the same data without any extra round trips. Requires a connection from
+     * {@link DbConnection#getMultiStatementReadConnection()}.
+     */
+    private Optional<Project> fetchProjectGraphInOneRoundTrip(Connection connection, Integer projectId)
+            throws SQLException {
+        String sql = ""
+                + START_READ_ONLY_TRANSACTION_SQL + "; "
+                + "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id = ?; "
+                + "SELECT * FROM " + MATERIAL_TABLE + " WHERE project_id = ?; "
+                + "SELECT * FROM " + STEP_TABLE + " WHERE project_id = ? ORDER BY step_order; "
+                + "SELECT c.* FROM " + CATEGORY_TABLE + " c "
+                + "JOIN " + PROJECT_CATEGORY_TABLE + " pc USING (category_id) "
+                + "WHERE pc.project_id = ?; "
+                + "COMMIT";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int parameterIndex = 1; parameterIndex <= 4; parameterIndex++) {
+                setParameter(statement, parameterIndex, projectId, Integer.class);
+            }
+            boolean isResultSet = statement.execute();
+
+            Project project;
+            try (ResultSet rs = nextResultSet(statement, isResultSet, Project.class)) {
+                if (!rs.next()) {
+                    return Optional.empty();
+                }
+                project = extract(rs, Project.class);
+            }
+            project.getMaterials().addAll(readNextResultSet(statement, Material.class));
+            project.getSteps().addAll(readNextResultSet(statement, Step.class));
+            project.getCategories().addAll(readNextResultSet(statement, Category.class));
+            return Optional.of(project);
+        }
+    }
+
+    /**
+     * Loads the full graphs of many projects with a fixed number of queries: each chunk of up to
+     * {@value #IN_LIST_CHUNK_SIZE} IDs is fetched with four IN-list queries, sent as one
+     * multi-statement round trip on MySQL, and the child rows are grouped by project ID in memory.
+     *
+     * @param projectIds The IDs to load. Duplicates are ignored.
+     * @return The projects that exist, in the order their IDs were first given.
+     */
+    public List<Project> fetchProjectsByIds(Collection<Integer> projectIds) {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(projectIds));
+        Map<Integer, Project> projectsById = new HashMap<>();
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        boolean multiStatement = multiStatementReads();
+        DaoMetrics.time("fetchProjectsByIds", () -> {
+            try (Connection connection = getBatchReadConnection(multiStatement)) {
+                startReadOnlyTransaction(connection);
+                try {
+                    for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+                        List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_CHUNK_SIZE));
+                        fetchProjectGraphChunk(connection, multiStatement, chunk, projectsById);
                     }
-                    commitTransaction(connection);
-                    return Optional.ofNullable(project);
-                } catch (SQLException e) {
-                    throw new RuntimeException(e);
+                    commitReadOnlyTransaction(connection);
+                } catch (Exception e) {
+                    rollbackReadOnlyTransaction(connection);
+                    throw new DbException(e);
                 }
-            } catch (Exception e) {
-                rollbackTransaction(connection);
+            } catch (SQLException e) {
                 throw new DbException(e);
             }
-        } catch (SQLException e) {
-            throw new DbException(e);
+        });
+        List<Project> projects = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Project project = projectsById.get(id);
+            if (Objects.nonNull(project)) {
+                projects.add(project);
+            }
+        }
+        return projects;
+    }
+
+    private void fetchProjectGraphChunk(Connection connection, boolean multiStatement, List<Integer> projectIds,
+                                        Map<Integer, Project> projectsById) throws SQLException {
+        String in = " IN (" + placeholders(projectIds.size()) + ")";
+        List<String> queries = List.of(
+                "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id" + in,
+                "SELECT * FROM " + MATERIAL_TABLE + " WHERE project_id" + in,
+                "SELECT * FROM " + STEP_TABLE + " WHERE project_id" + in + " ORDER BY project_id, step_order",
+                "SELECT pc.project_id AS owner_project_id, c.* FROM " + CATEGORY_TABLE + " c "
+                        + "JOIN " + PROJECT_CATEGORY_TABLE + " pc USING (category_id) "
+                        + "WHERE pc.project_id" + in);
+        try (QueryResults results = new QueryResults(connection, multiStatement, queries, projectIds)) {
+            try (ResultSet rs = results.next(Project.class)) {
+                RowMapper<Project> mapper = rowMapper(rs, Project.class);
+                while (rs.next()) {
+                    Project project = mapper.map(rs);
+                    projectsById.put(project.getProjectId(), project);
+                }
+            }
+            for (Material material : readAll(results.next(Material.class), Material.class)) {
+                addChild(projectsById, material.getProjectId(), Project::getMaterials, material);
+            }
+            for (Step step : readAll(results.next(Step.class), Step.class)) {
+                addChild(projectsById, step.getProjectId(), Project::getSteps, step);
+            }
+            try (ResultSet rs = results.next(Category.class)) {
+                RowMapper<Category> mapper = rowMapper(rs, Category.class);
+                while (rs.next()) {
+                    addChild(projectsById, rs.getInt("owner_project_id"), Project::getCategories, mapper.map(rs));
+                }
+            }
+        }
+    }
+
+    private static <T> void addChild(Map<Integer, Project> projectsById, Integer projectId,
+                                     Function<Project, List<T>> children, T child) {
+        Project project = projectsById.get(projectId);
+        if (Objects.nonNull(project)) {
+            children.apply(project).add(child);
+        }
+    }
+
+    /**
+     * Loads a project as the compact {@link ProjectView} read model. See
+     * {@link #fetchProjectViewsByIds(Collection)}.
+     */
+    public Optional<ProjectView> fetchProjectViewById(Integer projectId) {
+        List<ProjectView> views = fetchProjectViewsByIds(List.of(projectId));
+        return views.isEmpty() ? Optional.empty() : Optional.of(views.get(0));
+    }
+
+    /**
+     * Loads projects as the compact {@link ProjectView} read model, with the same batching as
+     * {@link #fetchProjectsByIds(Collection)}. Rows are read with explicit column lists and typed
+     * getters straight into the records, with no intermediate entity objects, and category views
+     * are shared between projects.
+     *
+     * @param projectIds The IDs to load. Duplicates are ignored.
+     * @return The projects that exist, in the order their IDs were first given.
+     */
+    public List<ProjectView> fetchProjectViewsByIds(Collection<Integer> projectIds) {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(projectIds));
+        Map<Integer, ViewBuilder> buildersById = new HashMap<>();
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        boolean multiStatement = multiStatementReads();
+        DaoMetrics.time("fetchProjectViewsByIds", () -> {
+            try (Connection connection = getBatchReadConnection(multiStatement)) {
+                startReadOnlyTransaction(connection);
+                try {
+                    for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+                        List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_CHUNK_SIZE));
+                        fetchProjectViewChunk(connection, multiStatement, chunk, buildersById);
+                    }
+                    commitReadOnlyTransaction(connection);
+                } catch (Exception e) {
+                    rollbackReadOnlyTransaction(connection);
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+        List<ProjectView> views = new ArrayList<>(buildersById.size());
+        for (Integer id : ids) {
+            ViewBuilder builder = buildersById.get(id);
+            if (Objects.nonNull(builder)) {
+                views.add(builder.build());
+            }
+        }
+        return views;
+    }
+
+    private void fetchProjectViewChunk(Connection connection, boolean multiStatement, List<Integer> projectIds,
+                                       Map<Integer, ViewBuilder> buildersById) throws SQLException {
+        String in = " IN (" + placeholders(projectIds.size()) + ")";
+        List<String> queries = List.of(
+                "SELECT project_id, project_name, estimated_hours, actual_hours, difficulty, notes FROM "
+                        + PROJECT_TABLE + " WHERE project_id" + in,
+                "SELECT project_id, material_id, material_name, num_required, cost FROM " + MATERIAL_TABLE
+                        + " WHERE project_id" + in + " ORDER BY project_id, material_id",
+                "SELECT project_id, step_id, step_text, step_order FROM " + STEP_TABLE
+                        + " WHERE project_id" + in + " ORDER BY project_id, step_order",
+                "SELECT pc.project_id, c.category_id, c.category_name FROM " + CATEGORY_TABLE + " c "
+                        + "JOIN " + PROJECT_CATEGORY_TABLE + " pc USING (category_id) "
+                        + "WHERE pc.project_id" + in + " ORDER BY pc.project_id, c.category_id");
+        try (QueryResults results = new QueryResults(connection, multiStatement, queries, projectIds)) {
+            try (ResultSet rs = results.next(ProjectView.class)) {
+                while (rs.next()) {
+                    ViewBuilder builder = new ViewBuilder(rs.getInt(1), rs.getString(2),
+                            FixedPoint.fromBigDecimal(rs.getBigDecimal(3)), FixedPoint.fromBigDecimal(rs.getBigDecimal(4)),
+                            getNullableInt(rs, 5), rs.getString(6));
+                    buildersById.put(builder.projectId, builder);
+                }
+            }
+            try (ResultSet rs = results.next(ProjectView.MaterialView.class)) {
+                while (rs.next()) {
+                    ViewBuilder builder = buildersById.get(rs.getInt(1));
+                    if (Objects.nonNull(builder)) {
+                        builder.materials.add(new ProjectView.MaterialView(rs.getInt(2), rs.getString(3),
+                                getNullableInt(rs, 4), FixedPoint.fromBigDecimal(rs.getBigDecimal(5))));
+                    }
+                }
+            }
+            try (ResultSet rs = results.next(ProjectView.StepView.class)) {
+                while (rs.next()) {
+                    ViewBuilder builder = buildersById.get(rs.getInt(1));
+                    if (Objects.nonNull(builder)) {
+                        builder.steps.add(new ProjectView.StepView(rs.getInt(2), rs.getString(3), rs.getInt(4)));
+                    }
+                }
+            }
+            try (ResultSet rs = results.next(ProjectView.CategoryView.class)) {
+                while (rs.next()) {
+                    ViewBuilder builder = buildersById.get(rs.getInt(1));
+                    if (Objects.nonNull(builder)) {
+                        builder.categories.add(categoryView(rs.getInt(2), rs.getString(3)));
+                    }
+                }
+            }
+        }
+    }
+
+    /* One shared view per category, replaced if the category's name changes. */
+    private static ProjectView.CategoryView categoryView(int categoryId, String categoryName) {
+        return CATEGORY_VIEWS.compute(categoryId, (id, view) ->
+                Objects.nonNull(view) && view.categoryName().equals(categoryName)
+                        ? view
+                        : new ProjectView.CategoryView(categoryId, categoryName));
+    }
+
+    private static int getNullableInt(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? FixedPoint.NULL : value;
+    }
+
+    /* Collects one project's rows until all four result sets have been read. */
+    private static final class ViewBuilder {
+        private final int projectId;
+        private final String projectName;
+        private final int estimatedHours;
+        private final int actualHours;
+        private final int difficulty;
+        private final String notes;
+        private final List<ProjectView.MaterialView> materials = new ArrayList<>();
+        private final List<ProjectView.StepView> steps = new ArrayList<>();
+        private final List<ProjectView.CategoryView> categories = new ArrayList<>();
+
+        ViewBuilder(int projectId, String projectName, int estimatedHours, int actualHours, int difficulty,
+                    String notes) {
+            this.projectId = projectId;
+            this.projectName = projectName;
+            this.estimatedHours = estimatedHours;
+            this.actualHours = actualHours;
+            this.difficulty = difficulty;
+            this.notes = notes;
+        }
+
+        ProjectView build() {
+            return new ProjectView(projectId, projectName, estimatedHours, actualHours, difficulty, notes,
+                    materials, steps, categories);
+        }
+    }
+
+    private Optional<Project> fetchProjectGraphPerTable(Connection connection, Integer projectId)
+            throws SQLException {
+        String sql = "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id = ?";
+        Project project = null;
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            setParameter(preparedStatement, 1, projectId, Integer.class);
+            try (ResultSet rs = preparedStatement.executeQuery()) {
+                if (rs.next()) {
+                    project = extract(rs, Project.class);
+                }
+            }
+        }
+        if (Objects.nonNull(project)) {
+            project.getMaterials().addAll(fetchMaterialsByProjectId(connection, projectId));
+            project.getSteps().addAll(fetchStepsByProjectId(connection, projectId));
+            project.getCategories().addAll(fetchCategoriesByProjectId(connection, projectId));
+        }
+        return Optional.ofNullable(project);
+    }
+
+    private <T> List<T> readNextResultSet(Statement statement, Class<T> classType) throws SQLException {
+        return readAll(nextResultSet(statement, statement.getMoreResults(), classType), classType);
+    }
+
+    /* Maps every row of the result set, then closes it. */
+    private <T> List<T> readAll(ResultSet rs, Class<T> classType) throws SQLException {
+        try (ResultSet resultSet = rs) {
+            List<T> rows = new LinkedList<>();
+            RowMapper<T> mapper = rowMapper(resultSet, classType);
+            while (resultSet.next()) {
+                rows.add(mapper.map(resultSet));
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Returns the current or next result set of a multi-statement execution, skipping the update
+     * counts of statements such as START TRANSACTION that do not return rows.
+     *
+     * @param isResultSet What the last execute() or getMoreResults() call returned.
+     */
+    private ResultSet nextResultSet(Statement statement, boolean isResultSet, Class<?> classType)
+            throws SQLException {
+        while (!isResultSet) {
+            if (statement.getUpdateCount() == -1) {
+                throw new SQLException("Expected a result set of " + classType.getSimpleName() + " rows.");
+            }
+            isResultSet = statement.getMoreResults();
+        }
+        return statement.getResultSet();
+    }
+
+    private static boolean multiStatementReads() {
+        return SINGLE_ROUND_TRIP_FETCH && DbConnection.supportsMultiStatementReads();
+    }
+
+    private static Connection getBatchReadConnection(boolean multiStatement) {
+        return multiStatement ? DbConnection.getMultiStatementReadConnection() : DbConnection.getReadConnection();
+    }
+
+    /**
+     * Runs queries that all take the same parameters and hands back their result sets in order:
+     * as one multi-statement round trip, or one query at a time on a connection that does not
+     * allow multi-statements. Each result set should be closed before asking for the next.
+     */
+    private final class QueryResults implements AutoCloseable {
+        private final Connection connection;
+        private final boolean multiStatement;
+        private final List<String> queries;
+        private final List<Integer> parameters;
+        private PreparedStatement statement;
+        private int nextQuery;
+
+        QueryResults(Connection connection, boolean multiStatement, List<String> queries, List<Integer> parameters) {
+            this.connection = connection;
+            this.multiStatement = multiStatement;
+            this.queries = queries;
+            this.parameters = parameters;
+        }
+
+        ResultSet next(Class<?> classType) throws SQLException {
+            if (!multiStatement) {
+                close();
+                statement = prepare(queries.get(nextQuery++), 1);
+                return statement.executeQuery();
+            }
+            if (Objects.nonNull(statement)) {
+                return nextResultSet(statement, statement.getMoreResults(), classType);
+            }
+            statement = prepare(String.join("; ", queries), queries.size());
+            return nextResultSet(statement, statement.execute(), classType);
+        }
+
+        private PreparedStatement prepare(String sql, int copies) throws SQLException {
+            PreparedStatement prepared = connection.prepareStatement(sql);
+            int parameterIndex = 1;
+            for (int copy = 0; copy < copies; copy++) {
+                for (Integer parameter : parameters) {
+                    setParameter(prepared, parameterIndex++, parameter, Integer.class);
+                }
+            }
+            return prepared;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (Objects.nonNull(statement)) {
+                statement.close();
+                statement = null;
+            }
         }
     }
 
     public Project insertProject(Project project) {
-        String sql = ""
-                + "INSERT INTO " + PROJECT_TABLE
-                + " (project_name, estimated_hours, actual_hours, difficulty, notes) "
-                + "VALUES "
-                + "(?, ?, ?, ?, ?)";
-        try (Connection conn = DbConnection.getConnection()) {
-            startTransaction(conn);
-
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                setParameter(stmt, 1, project.getProjectName(), String.class);
-                setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
-                setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
-                setParameter(stmt, 4, project.getDifficulty(), Integer.class);
-                setParameter(stmt, 5, project.getNotes(), String.class);
-                stmt.executeUpdate();
-                Integer projectId = getLastInsertId(conn, PROJECT_TABLE);
-                commitTransaction(conn);//DAO base
-                project.setProjectId(projectId);
-                return project;
-            } catch (Exception e) {
-                rollbackTransaction(conn);//DAO base
+        return DaoMetrics.time("insertProject", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_PROJECT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    setProjectParameters(stmt, project);
+                    stmt.executeUpdate();
+                    Integer projectId = getGeneratedId(stmt);
+                    rollupDao.insertRollups(conn, List.of(projectId));
+                    commitTransaction(conn);//DAO base
+                    project.setProjectId(projectId);
+                    project.setVersion(1);
+                    return project;
+                } catch (Exception e) {
+                    rollbackTransaction(conn);//DAO base
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
                 throw new DbException(e);
             }
-        } catch (SQLException e) {
-            throw new DbException(e);
+        });
+    }
+
+    /**
+     * Inserts many projects in one transaction. Rows are sent as JDBC batches of up to
+     * {@value #INSERT_BATCH_SIZE}, which the driver rewrites into multi-row INSERTs, and each
+     * project's ID is filled in from the generated keys. Either every project is inserted or none
+     * is.
+     *
+     * @param projects The projects to insert.
+     * @return The same projects with their IDs set.
+     */
+    public List<Project> insertProjects(List<Project> projects) {
+        if (projects.isEmpty()) {
+            return projects;
         }
+        return DaoMetrics.time("insertProjects", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_PROJECT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    for (int from = 0; from < projects.size(); from += INSERT_BATCH_SIZE) {
+                        List<Project> batch = projects.subList(from, Math.min(projects.size(), from + INSERT_BATCH_SIZE));
+                        for (Project project : batch) {
+                            setProjectParameters(stmt, project);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                        List<Integer> ids = getGeneratedIds(stmt);
+                        if (ids.size() != batch.size()) {
+                            throw new SQLException("Expected " + batch.size() + " generated keys but got " + ids.size());
+                        }
+                        for (int i = 0; i < batch.size(); i++) {
+                            batch.get(i).setProjectId(ids.get(i));
+                            batch.get(i).setVersion(1);
+                        }
+                        rollupDao.insertRollups(conn, ids);
+                    }
+                    commitTransaction(conn);
+                    return projects;
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    projects.forEach(project -> {
+                        project.setProjectId(null);
+                        project.setVersion(null);
+                    });
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Adds materials to a project in one transaction. Rows are sent as JDBC batches of up to
+     * {@value #INSERT_BATCH_SIZE}, rewritten by the driver into multi-row INSERTs, so hundreds of
+     * materials cost a handful of round trips. Each material's ID and project ID are filled in.
+     *
+     * @return False, with nothing written, if the project does not exist.
+     */
+    public boolean addMaterials(Integer projectId, List<Material> materials) {
+        String sql = "INSERT INTO " + MATERIAL_TABLE
+                + " (project_id, material_name, num_required, cost) VALUES (?, ?, ?, ?)";
+        return DaoMetrics.time("addMaterials", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+                try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    if (!stepDao.bumpProjectVersion(conn, projectId)) {
+                        rollbackTransaction(conn);
+                        return false;
+                    }
+                    for (int from = 0; from < materials.size(); from += INSERT_BATCH_SIZE) {
+                        List<Material> batch = materials.subList(from, Math.min(materials.size(), from + INSERT_BATCH_SIZE));
+                        for (Material material : batch) {
+                            setParameter(stmt, 1, projectId, Integer.class);
+                            setParameter(stmt, 2, material.getMaterialName(), String.class);
+                            setParameter(stmt, 3, material.getNumRequired(), Integer.class);
+                            setParameter(stmt, 4, material.getCost(), BigDecimal.class);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                        List<Integer> ids = getGeneratedIds(stmt);
+                        if (ids.size() != batch.size()) {
+                            throw new SQLException("Expected " + batch.size() + " generated keys but got " + ids.size());
+                        }
+                        for (int i = 0; i < batch.size(); i++) {
+                            batch.get(i).setMaterialId(ids.get(i));
+                            batch.get(i).setProjectId(projectId);
+                        }
+                    }
+                    rollupDao.addMaterials(conn, projectId, materials);
+                    commitTransaction(conn);
+                    return true;
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    materials.forEach(material -> material.setMaterialId(null));
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Appends steps to the end of a project, in list order, in one batched transaction. Each
+     * step's ID, project ID and gapped step order (see {@link StepDao}) are filled in; any step
+     * order already set on a step is ignored.
+     *
+     * @return False, with nothing written, if the project does not exist.
+     */
+    public boolean addSteps(Integer projectId, List<Step> steps) {
+        String sql = "INSERT INTO " + STEP_TABLE + " (project_id, step_text, step_order) VALUES (?, ?, ?)";
+        return DaoMetrics.time("addSteps", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+                try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    if (!stepDao.bumpProjectVersion(conn, projectId)) {
+                        rollbackTransaction(conn);
+                        return false;
+                    }
+                    int stepOrder = stepDao.firstAppendKey(conn, projectId, Math.max(1, steps.size()));
+                    for (int from = 0; from < steps.size(); from += INSERT_BATCH_SIZE) {
+                        List<Step> batch = steps.subList(from, Math.min(steps.size(), from + INSERT_BATCH_SIZE));
+                        for (Step step : batch) {
+                            step.setProjectId(projectId);
+                            step.setStepOrder(stepOrder);
+                            stepOrder += StepDao.GAP;
+                            setParameter(stmt, 1, projectId, Integer.class);
+                            setParameter(stmt, 2, step.getStepText(), String.class);
+                            setParameter(stmt, 3, step.getStepOrder(), Integer.class);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                        List<Integer> ids = getGeneratedIds(stmt);
+                        if (ids.size() != batch.size()) {
+                            throw new SQLException("Expected " + batch.size() + " generated keys but got " + ids.size());
+                        }
+                        for (int i = 0; i < batch.size(); i++) {
+                            batch.get(i).setStepId(ids.get(i));
+                        }
+                    }
+                    rollupDao.addSteps(conn, projectId, steps.size());
+                    commitTransaction(conn);
+                    return true;
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    steps.forEach(step -> {
+                        step.setStepId(null);
+                        step.setStepOrder(null);
+                    });
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Replaces a project's categories with the given ones in one transaction: one DELETE and one
+     * batched multi-row INSERT.
+     *
+     * @return False, with nothing written, if the project does not exist.
+     */
+    public boolean setCategories(Integer projectId, Collection<Integer> categoryIds) {
+        String delete = "DELETE FROM " + PROJECT_CATEGORY_TABLE + " WHERE project_id = ?";
+        String insert = "INSERT INTO " + PROJECT_CATEGORY_TABLE + " (project_id, category_id) VALUES (?, ?)";
+        return DaoMetrics.time("setCategories", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+                try {
+                    if (!stepDao.bumpProjectVersion(conn, projectId)) {
+                        rollbackTransaction(conn);
+                        return false;
+                    }
+                    try (PreparedStatement stmt = conn.prepareStatement(delete)) {
+                        setParameter(stmt, 1, projectId, Integer.class);
+                        stmt.executeUpdate();
+                    }
+                    if (!categoryIds.isEmpty()) {
+                        try (PreparedStatement stmt = conn.prepareStatement(insert)) {
+                            for (Integer categoryId : new LinkedHashSet<>(categoryIds)) {
+                                setParameter(stmt, 1, projectId, Integer.class);
+                                setParameter(stmt, 2, categoryId, Integer.class);
+                                stmt.addBatch();
+                            }
+                            stmt.executeBatch();
+                        }
+                    }
+                    commitTransaction(conn);
+                    return true;
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    private void setProjectParameters(PreparedStatement stmt, Project project) throws SQLException {
+        setParameter(stmt, 1, project.getProjectName(), String.class);
+        setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
+        setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
+        setParameter(stmt, 4, project.getDifficulty(), Integer.class);
+        setParameter(stmt, 5, project.getNotes(), String.class);
     }
 
     public List<Project> fetchAllProjects() {
-        String sql = "SELECT * FROM " + PROJECT_TABLE + " order by project_id DESC;";
-        try (Connection connection = DbConnection.getConnection()) {
-            startTransaction(connection);
-            try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-                try (ResultSet rs = preparedStatement.executeQuery()) {
-                    List<Project> projects = new LinkedList<>();
+        String sql = "SELECT * FROM " + PROJECT_TABLE + " ORDER BY project_id";
+        return DaoMetrics.time("fetchAllProjects", () -> {
+            try (Connection connection = DbConnection.getReadConnection()) {
+                startReadOnly(connection);
+                try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                    try (ResultSet rs = preparedStatement.executeQuery()) {
+                        List<Project> projects = new LinkedList<>();
+                        RowMapper<Project> mapper = rowMapper(rs, Project.class);
+                        while (rs.next()) {
+                            projects.add(mapper.map(rs));
+                        }
+                        return projects;
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Streams every project in project ID order without materializing the list. The MySQL driver
+     * is asked to stream rows one at a time (forward-only, read-only, fetch size
+     * {@link Integer#MIN_VALUE}), so memory use stays constant however many projects there are.
+     * Other drivers reject that fetch size and get {@value #STREAM_FETCH_SIZE} instead.
+     * <p>
+     * The stream holds a pooled connection until it is closed, so always consume it inside
+     * try-with-resources:
+     *
+     * <pre>
+     * try (Stream&lt;Project&gt; projects = projectDao.streamAllProjects()) {
+     *     projects.forEach(...);
+     * }
+     * </pre>
+     */
+    public Stream<Project> streamAllProjects() {
+        return streamAll("SELECT * FROM " + PROJECT_TABLE + " ORDER BY project_id", Project.class);
+    }
+
+    /**
+     * Streams every step of every project, ordered by project ID and then step order, with the
+     * same constant-memory streaming and closing rules as {@link #streamAllProjects()}.
+     */
+    public Stream<Step> streamAllSteps() {
+        return streamAll("SELECT * FROM " + STEP_TABLE + " ORDER BY project_id, step_order", Step.class);
+    }
+
+    /**
+     * Streams the ID and name of every project in project ID order, like
+     * {@link #streamAllProjects()} but without the notes.
+     */
+    public Stream<ProjectSummary> streamAllProjectSummaries() {
+        return streamAll("SELECT project_id, project_name FROM " + PROJECT_TABLE + " ORDER BY project_id",
+                ProjectSummary.class);
+    }
+
+    /**
+     * Streams every project_category row, ordered by category ID and then project ID.
+     */
+    public Stream<ProjectCategory> streamAllProjectCategories() {
+        return streamAll("SELECT project_id, category_id FROM " + PROJECT_CATEGORY_TABLE
+                + " ORDER BY category_id, project_id", ProjectCategory.class);
+    }
+
+    private <T> Stream<T> streamAll(String sql, Class<T> classType) {
+        Connection connection = DbConnection.getReadConnection();
+        try {
+            startReadOnly(connection);
+            PreparedStatement statement =
+                    connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(isMySql(connection) ? Integer.MIN_VALUE : STREAM_FETCH_SIZE);
+            ResultSet rs = statement.executeQuery();
+            RowMapper<T> mapper = rowMapper(rs, classType);
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        action.accept(mapper.map(rs));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new DbException(e);
+                    }
+                }
+            };
+            return StreamSupport.stream(rows, false).onClose(() -> closeAll(rs, statement, connection));
+        } catch (SQLException | RuntimeException e) {
+            closeAll(connection);
+            throw e instanceof DbException ? (DbException) e : new DbException(e);
+        }
+    }
+
+    /**
+     * Returns one page of projects using keyset pagination: the projects with an ID greater than
+     * {@code afterProjectId}, in project ID order. Pass the last ID of the previous page to get
+     * the next one; each page is a primary key range scan no matter how deep it is.
+     *
+     * @param afterProjectId The last project ID already seen, or null for the first page.
+     * @param limit The maximum number of projects to return.
+     */
+    public List<Project> fetchProjectsAfter(Integer afterProjectId, int limit) {
+        String sql = "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id > ? ORDER BY project_id LIMIT ?";
+        return DaoMetrics.time("fetchProjectsAfter", () -> {
+            try (Connection connection = DbConnection.getReadConnection()) {
+                startReadOnly(connection);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    setParameter(statement, 1, Objects.isNull(afterProjectId) ? 0 : afterProjectId, Integer.class);
+                    setParameter(statement, 2, limit, Integer.class);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        List<Project> projects = new ArrayList<>(limit);
+                        RowMapper<Project> mapper = rowMapper(rs, Project.class);
+                        while (rs.next()) {
+                            projects.add(mapper.map(rs));
+                        }
+                        return projects;
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Returns the project's current version, or empty if it does not exist: a single primary key
+     * lookup for checking whether a copy of the project is stale.
+     */
+    public Optional<Integer> fetchProjectVersion(Integer projectId) {
+        String sql = "SELECT version FROM " + PROJECT_TABLE + " WHERE project_id = ?";
+        return DaoMetrics.time("fetchProjectVersion", () -> {
+            try (Connection connection = DbConnection.getReadConnection()) {
+                startReadOnly(connection);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    setParameter(statement, 1, projectId, Integer.class);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        return rs.next() ? Optional.of(rs.getInt(1)) : Optional.empty();
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Returns a stamp of the project table made of the project count, the highest project ID and
+     * the sum of the project versions. Every write through the DAO to a project or its children
+     * bumps the project's version, so the stamp changes whenever a project is added, deleted or
+     * written. It is read from the primary, so a lagging replica cannot report an old stamp.
+     */
+    public String fetchProjectsStamp() {
+        String sql = "SELECT COUNT(*), COALESCE(MAX(project_id), 0), COALESCE(SUM(version), 0) FROM " + PROJECT_TABLE;
+        return DaoMetrics.time("fetchProjectsStamp", () -> DbConnection.readFromPrimary(() -> {
+            try (Connection connection = DbConnection.getReadConnection()) {
+                startReadOnly(connection);
+                try (PreparedStatement statement = connection.prepareStatement(sql);
+                     ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1) + ":" + rs.getLong(2) + ":" + rs.getLong(3);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        }));
+    }
+
+    /**
+     * Returns the project's ID and name only, or empty if it does not exist.
+     */
+    public Optional<ProjectSummary> fetchProjectSummaryById(Integer projectId) {
+        String sql = "SELECT project_id, project_name FROM " + PROJECT_TABLE + " WHERE project_id = ?";
+        return DaoMetrics.time("fetchProjectSummaryById", () -> {
+            try (Connection connection = DbConnection.getReadConnection()) {
+                startReadOnly(connection);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    setParameter(statement, 1, projectId, Integer.class);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        return rs.next() ? Optional.of(extract(rs, ProjectSummary.class)) : Optional.empty();
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Lists every project as a {@link ProjectSummary}. Only the ID and name columns are selected,
+     * so the notes of each project never cross the wire.
+     */
+    public List<ProjectSummary> fetchProjectSummaries() {
+        String sql = "SELECT project_id, project_name FROM " + PROJECT_TABLE + " ORDER BY project_id";
+        return DaoMetrics.time("fetchProjectSummaries", () -> {
+            try (Connection connection = DbConnection.getReadConnection()) {
+                startReadOnly(connection);
+                try (PreparedStatement statement = connection.prepareStatement(sql);
+                     ResultSet rs = statement.executeQuery()) {
+                    List<ProjectSummary> summaries = new ArrayList<>();
+                    RowMapper<ProjectSummary> mapper = rowMapper(rs, ProjectSummary.class);
                     while (rs.next()) {
-                        Project project = new Project();
-                        project.setProjectId(rs.getInt("project_id"));
-                        project.setProjectName(rs.getString("project_name"));
-                        project.setEstimatedHours(rs.getBigDecimal("estimated_hours"));
-                        project.setActualHours(rs.getBigDecimal("actual_hours"));
-                        project.setDifficulty(rs.getInt("difficulty"));
-                        project.setNotes(rs.getString("notes"));
-                        projects.add(project);
+                        summaries.add(mapper.map(rs));
                     }
-                    return projects;
+                    return summaries;
                 }
-            } catch (Exception e) {
-                rollbackTransaction(connection);
+            } catch (SQLException e) {
                 throw new DbException(e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+        });
+    }
+
+    /**
+     * The keyset-paginated form of {@link #fetchProjectSummaries()}: up to {@code limit} summaries
+     * with IDs after {@code afterProjectId}, in ID order.
+     */
+    public List<ProjectSummary> fetchProjectSummariesAfter(Integer afterProjectId, int limit) {
+        String sql = "SELECT project_id, project_name FROM " + PROJECT_TABLE
+                + " WHERE project_id > ? ORDER BY project_id LIMIT ?";
+        return DaoMetrics.time("fetchProjectSummariesAfter", () -> {
+            try (Connection connection = DbConnection.getReadConnection()) {
+                startReadOnly(connection);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    setParameter(statement, 1, Objects.isNull(afterProjectId) ? 0 : afterProjectId, Integer.class);
+                    setParameter(statement, 2, limit, Integer.class);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        List<ProjectSummary> summaries = new ArrayList<>(limit);
+                        RowMapper<ProjectSummary> mapper = rowMapper(rs, ProjectSummary.class);
+                        while (rs.next()) {
+                            summaries.add(mapper.map(rs));
+                        }
+                        return summaries;
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Finds the projects matching the given criteria. Filtering, sorting and paging are all done
+     * by one parameterised SELECT; see {@link ProjectQuery}.
+     */
+    public List<Project> findProjects(ProjectQuery query) {
+        List<Object> parameters = new ArrayList<>();
+        String sql = query.toSql(PROJECT_TABLE, PROJECT_CATEGORY_TABLE, parameters);
+        return DaoMetrics.time("findProjects", () -> {
+            try (Connection connection = DbConnection.getReadConnection()) {
+                startReadOnly(connection);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < parameters.size(); i++) {
+                        Object value = parameters.get(i);
+                        setParameter(statement, i + 1, value, value.getClass());
+                    }
+                    try (ResultSet rs = statement.executeQuery()) {
+                        List<Project> projects = new ArrayList<>();
+                        RowMapper<Project> mapper = rowMapper(rs, Project.class);
+                        while (rs.next()) {
+                            projects.add(mapper.map(rs));
+                        }
+                        return projects;
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    private static void closeAll(AutoCloseable... resources) {
+        DbException failure = null;
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                if (Objects.isNull(failure)) {
+                    failure = new DbException(e);
+                }
+            }
         }
+        if (Objects.nonNull(failure)) {
+            throw failure;
+        }
+    }
+
+    /*
+     * The project row and each child collection on its own pooled connection, so a caller can load
+     * them concurrently. Unlike fetchProjectById they do not share a transaction.
+     */
+
+    public Optional<Project> fetchProjectDetailsById(Integer projectId) {
+        String sql = "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id = ?";
+        return DaoMetrics.time("fetchProjectDetailsById", () -> {
+            try (Connection connection = DbConnection.getReadConnection()) {
+                startReadOnly(connection);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    setParameter(statement, 1, projectId, Integer.class);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        return rs.next() ? Optional.of(extract(rs, Project.class)) : Optional.empty();
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    public List<Material> fetchMaterialsByProjectId(Integer projectId) {
+        return DaoMetrics.time("fetchMaterialsByProjectId", () -> {
+            try (Connection connection = DbConnection.getReadConnection()) {
+                startReadOnly(connection);
+                return fetchMaterialsByProjectId(connection, projectId);
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    public List<Step> fetchStepsByProjectId(Integer projectId) {
+        return DaoMetrics.time("fetchStepsByProjectId", () -> {
+            try (Connection connection = DbConnection.getReadConnection()) {
+                startReadOnly(connection);
+                return fetchStepsByProjectId(connection, projectId);
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    public List<Category> fetchCategoriesByProjectId(Integer projectId) {
+        return DaoMetrics.time("fetchCategoriesByProjectId", () -> {
+            try (Connection connection = DbConnection.getReadConnection()) {
+                startReadOnly(connection);
+                return fetchCategoriesByProjectId(connection, projectId);
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
     }
 
     private List<Material> fetchMaterialsByProjectId(Connection connection, Integer projectId) throws SQLException {
@@ -121,8 +1063,9 @@ public class ProjectDao extends DaoBase {
             setParameter(statement, 1, projectId, Integer.class);
             try (ResultSet resultSet = statement.executeQuery()) {
                 List<Material> materials = new LinkedList<>();
+                RowMapper<Material> mapper = rowMapper(resultSet, Material.class);
                 while (resultSet.next()) {
-                    materials.add(extract(resultSet, Material.class));
+                    materials.add(mapper.map(resultSet));
                 }
                 return materials;
             }
@@ -137,8 +1080,9 @@ public class ProjectDao extends DaoBase {
             setParameter(statement, 1, projectId, Integer.class);
             try (ResultSet resultSet = statement.executeQuery()) {
                 List<Category> categories = new LinkedList<>();
+                RowMapper<Category> mapper = rowMapper(resultSet, Category.class);
                 while (resultSet.next()) {
-                    categories.add(extract(resultSet, Category.class));
+                    categories.add(mapper.map(resultSet));
                 }
                 return categories;
             }
@@ -148,13 +1092,14 @@ public class ProjectDao extends DaoBase {
     ;
 
     private List<Step> fetchStepsByProjectId(Connection connection, Integer projectId) throws SQLException {
-        String sql = "SELECT * FROM " + STEP_TABLE + " WHERE project_id = ?";
+        String sql = "SELECT * FROM " + STEP_TABLE + " WHERE project_id = ? ORDER BY step_order";
         try (PreparedStatement statement = connection.prepareStatement(sql)) {
             setParameter(statement, 1, projectId, Integer.class);
             try (ResultSet resultSet = statement.executeQuery()) {
                 List<Step> steps = new LinkedList<>();
+                RowMapper<Step> mapper = rowMapper(resultSet, Step.class);
                 while (resultSet.next()) {
-                    steps.add(extract(resultSet, Step.class));
+                    steps.add(mapper.map(resultSet));
                 }
                 return steps;
             }
@@ -164,54 +1109,97 @@ public class ProjectDao extends DaoBase {
     ;
 
     public boolean modifyProjectDetails(Project project) {
-        String sql = ""
-                + "UPDATE " + PROJECT_TABLE + " SET "
-                + "project_name = ?, "
-                + "estimated_hours = ?,"
-                + "actual_hours = ?,"
-                + "difficulty = ?,"
-                + "notes = ? "
-                + "WHERE project_id = ?";
-        try (Connection conn = DbConnection.getConnection()) {
-            startTransaction(conn);
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                setParameter(stmt, 1, project.getProjectName(), String.class);
-                setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
-                setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
-                setParameter(stmt, 4, project.getDifficulty(), Integer.class);
-                setParameter(stmt, 5, project.getNotes(), String.class);
-                setParameter(stmt, 6, project.getProjectId(), Integer.class);
-                boolean modified = stmt.executeUpdate() == 1;
-                commitTransaction(conn);
-                return modified;
-            } catch (Exception e) {
-                rollbackTransaction(conn);
+        String sql = MODIFY_PROJECT_SQL;
+        return DaoMetrics.time("modifyProjectDetails", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    setParameter(stmt, 1, project.getProjectName(), String.class);
+                    setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
+                    setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
+                    setParameter(stmt, 4, project.getDifficulty(), Integer.class);
+                    setParameter(stmt, 5, project.getNotes(), String.class);
+                    setParameter(stmt, 6, project.getProjectId(), Integer.class);
+                    boolean modified = stmt.executeUpdate() == 1;
+                    if (modified) {
+                        rollupDao.updateHours(conn, List.of(project));
+                    }
+                    commitTransaction(conn);
+                    return modified;
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
                 throw new DbException(e);
             }
-        } catch (SQLException e) {
-            throw new DbException(e);
+        });
+    }
+
+    /**
+     * Applies many {@link #modifyProjectDetails(Project)} updates as one JDBC batch in one
+     * transaction, refreshing the affected rollups in the same transaction.
+     *
+     * @param projects The new project details, at most one per project ID.
+     * @return The IDs of the projects that exist and were updated.
+     */
+    public List<Integer> modifyProjectsDetails(Collection<Project> projects) {
+        if (projects.isEmpty()) {
+            return new ArrayList<>();
         }
+        return DaoMetrics.time("modifyProjectsDetails", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+                try (PreparedStatement stmt = conn.prepareStatement(MODIFY_PROJECT_SQL)) {
+                    List<Project> ordered = new ArrayList<>(projects);
+                    for (Project project : ordered) {
+                        setProjectParameters(stmt, project);
+                        setParameter(stmt, 6, project.getProjectId(), Integer.class);
+                        stmt.addBatch();
+                    }
+                    int[] counts = stmt.executeBatch();
+                    List<Integer> modified = new ArrayList<>(counts.length);
+                    List<Project> modifiedProjects = new ArrayList<>(counts.length);
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                            modified.add(ordered.get(i).getProjectId());
+                            modifiedProjects.add(ordered.get(i));
+                        }
+                    }
+                    rollupDao.updateHours(conn, modifiedProjects);
+                    commitTransaction(conn);
+                    return modified;
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
     }
 
     public boolean deleteProject(Integer projectId) {
         String sql = "DELETE FROM " + PROJECT_TABLE + " WHERE project_id = ?";
-        try (Connection conn = DbConnection.getConnection()) {
-            startTransaction(conn);
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                setParameter(stmt, 1, projectId, Integer.class);
-                int rowsAffected = stmt.executeUpdate();
-                boolean deleted = rowsAffected > 0;
-                if (rowsAffected == 0) {
-                    return false;
-                }
-                commitTransaction(conn);
-                return deleted;
-            } catch (Exception e) {
-                rollbackTransaction(conn);
+        return DaoMetrics.time("deleteProject", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    setParameter(stmt, 1, projectId, Integer.class);
+                    int rowsAffected = stmt.executeUpdate();
+                    boolean deleted = rowsAffected > 0;
+                    if (rowsAffected == 0) {
+                        return false;
+                    }
+                    commitTransaction(conn);
+                    return deleted;
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
                 throw new DbException(e);
             }
-        } catch (SQLException e) {
-            throw new DbException(e);
-        }
+        });
     }
 }
\ No newline at end of file
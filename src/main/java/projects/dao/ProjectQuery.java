@@ -0,0 +1,264 @@
+package projects.dao;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Criteria for {@link ProjectDao#findProjects(ProjectQuery)}. Every criterion is optional and
+ * they are combined with AND. The whole query, including sorting and paging, is turned into a
+ * single parameterised SELECT, so filtering and sorting happen in the database.
+ *
+ * <pre>
+ * ProjectQuery query = new ProjectQuery()
+ *         .difficultyBetween(2, 4)
+ *         .nameStartsWith("Deck")
+ *         .inCategory(3)
+ *         .orderBy(ProjectQuery.SortField.ESTIMATED_HOURS, false)
+ *         .limit(20);
+ * </pre>
+ *
+ * Results are always ordered by project ID last, so paging is stable. For deep pages prefer
+ * {@link #after(Object, Integer)} (keyset paging) to {@link #offset(int)}; it requires exactly one
+ * sort key on a column without nulls, or no sort key at all.
+ */
+public class ProjectQuery {
+    public enum SortField {
+        PROJECT_ID("project_id", Integer.class),
+        PROJECT_NAME("project_name", String.class),
+        DIFFICULTY("difficulty", Integer.class),
+        ESTIMATED_HOURS("estimated_hours", BigDecimal.class),
+        ACTUAL_HOURS("actual_hours", BigDecimal.class);
+
+        private final String column;
+        private final Class<?> type;
+
+        SortField(String column, Class<?> type) {
+            this.column = column;
+            this.type = type;
+        }
+
+        String getColumn() {
+            return column;
+        }
+
+        /**
+         * Converts a keyset value to this column's parameter type: any integral number for an INT
+         * column, any number for a DECIMAL column, any character sequence for a VARCHAR column.
+         */
+        Object toParameter(Object value) {
+            try {
+                if (type == String.class && value instanceof CharSequence text) {
+                    return text.toString();
+                }
+                if (type == Integer.class && value instanceof Number number) {
+                    return new BigDecimal(number.toString()).intValueExact();
+                }
+                if (type == BigDecimal.class && value instanceof Number number) {
+                    return number instanceof BigDecimal decimal ? decimal : new BigDecimal(number.toString());
+                }
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw new IllegalArgumentException("Keyset value " + value + " does not fit " + column + ".", e);
+            }
+            throw new IllegalArgumentException("Keyset value for " + column + " must be "
+                    + (type == String.class ? "text" : "a number") + ", not " + value.getClass().getSimpleName() + ".");
+        }
+    }
+
+    record SortKey(SortField field, boolean ascending) {
+    }
+
+    private Integer minDifficulty;
+    private Integer maxDifficulty;
+    private BigDecimal minEstimatedHours;
+    private BigDecimal maxEstimatedHours;
+    private BigDecimal minActualHours;
+    private BigDecimal maxActualHours;
+    private String namePrefix;
+    private final Set<Integer> categoryIds = new LinkedHashSet<>();
+    private final List<SortKey> sortKeys = new ArrayList<>();
+    private Integer limit;
+    private Integer offset;
+    private Object afterSortValue;
+    private Integer afterProjectId;
+
+    public ProjectQuery difficultyBetween(Integer min, Integer max) {
+        this.minDifficulty = min;
+        this.maxDifficulty = max;
+        return this;
+    }
+
+    public ProjectQuery estimatedHoursBetween(BigDecimal min, BigDecimal max) {
+        this.minEstimatedHours = min;
+        this.maxEstimatedHours = max;
+        return this;
+    }
+
+    public ProjectQuery actualHoursBetween(BigDecimal min, BigDecimal max) {
+        this.minActualHours = min;
+        this.maxActualHours = max;
+        return this;
+    }
+
+    public ProjectQuery nameStartsWith(String prefix) {
+        this.namePrefix = prefix;
+        return this;
+    }
+
+    /**
+     * Restricts the results to projects in at least one of the given categories. May be called
+     * more than once to widen the set.
+     */
+    public ProjectQuery inCategory(Integer... categoryIds) {
+        this.categoryIds.addAll(List.of(categoryIds));
+        return this;
+    }
+
+    public ProjectQuery inCategories(Collection<Integer> categoryIds) {
+        this.categoryIds.addAll(categoryIds);
+        return this;
+    }
+
+    /**
+     * Adds a sort key. Keys apply in the order they are added.
+     */
+    public ProjectQuery orderBy(SortField field, boolean ascending) {
+        sortKeys.add(new SortKey(field, ascending));
+        return this;
+    }
+
+    public ProjectQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public ProjectQuery offset(int offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Starts the page after the given row of the previous page.
+     *
+     * @param sortValue The last row's value of the sort key, or null when there is no sort key.
+     *                  It must be a number or a character sequence, and is converted to the sort
+     *                  column's type when the SQL is built; a value that does not fit the column
+     *                  throws {@link IllegalArgumentException} then.
+     * @param projectId The last row's project ID.
+     * @throws IllegalArgumentException if the sort value is neither a number nor text.
+     */
+    public ProjectQuery after(Object sortValue, Integer projectId) {
+        if (Objects.nonNull(sortValue) && !(sortValue instanceof Number) && !(sortValue instanceof CharSequence)) {
+            throw new IllegalArgumentException("Keyset value must be a number or text, not "
+                    + sortValue.getClass().getSimpleName() + ".");
+        }
+        this.afterSortValue = sortValue;
+        this.afterProjectId = projectId;
+        return this;
+    }
+
+    /**
+     * Builds the SQL for this query, adding its parameter values to {@code parameters} in order.
+     * Every value added is an Integer, BigDecimal or String.
+     */
+    String toSql(String projectTable, String projectCategoryTable, List<Object> parameters) {
+        StringBuilder sql = new StringBuilder("SELECT p.* FROM ").append(projectTable).append(" p");
+        List<String> where = new ArrayList<>();
+
+        range(where, parameters, "p.difficulty", minDifficulty, maxDifficulty);
+        range(where, parameters, "p.estimated_hours", minEstimatedHours, maxEstimatedHours);
+        range(where, parameters, "p.actual_hours", minActualHours, maxActualHours);
+
+        if (Objects.nonNull(namePrefix)) {
+            where.add("p.project_name LIKE ?");
+            parameters.add(escapeLike(namePrefix) + "%");
+        }
+
+        if (!categoryIds.isEmpty()) {
+            where.add("EXISTS (SELECT 1 FROM " + projectCategoryTable + " pc WHERE pc.project_id = p.project_id"
+                    + " AND pc.category_id IN (" + String.join(",", Collections.nCopies(categoryIds.size(), "?"))
+                    + "))");
+            parameters.addAll(categoryIds);
+        }
+
+        if (Objects.nonNull(afterProjectId)) {
+            addKeysetCondition(where, parameters);
+        }
+
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", where));
+        }
+
+        sql.append(" ORDER BY ");
+        for (SortKey key : sortKeys) {
+            if (key.field() != SortField.PROJECT_ID) {
+                sql.append("p.").append(key.field().getColumn()).append(key.ascending() ? " ASC, " : " DESC, ");
+            }
+        }
+        sql.append("p.project_id ").append(projectIdAscending() ? "ASC" : "DESC");
+
+        if (Objects.nonNull(limit)) {
+            sql.append(" LIMIT ?");
+            parameters.add(limit);
+        }
+        if (Objects.nonNull(offset)) {
+            if (Objects.isNull(limit)) {
+                /* MySQL has no OFFSET without LIMIT. */
+                sql.append(" LIMIT ").append(Long.MAX_VALUE);
+            }
+            sql.append(" OFFSET ?");
+            parameters.add(offset);
+        }
+        return sql.toString();
+    }
+
+    private void addKeysetCondition(List<String> where, List<Object> parameters) {
+        List<SortKey> keys = sortKeys.stream().filter(key -> key.field() != SortField.PROJECT_ID).toList();
+        String idComparison = projectIdAscending() ? ">" : "<";
+        if (keys.isEmpty()) {
+            where.add("p.project_id " + idComparison + " ?");
+            parameters.add(afterProjectId);
+            return;
+        }
+        if (keys.size() > 1 || Objects.isNull(afterSortValue)) {
+            throw new IllegalStateException("Keyset paging needs exactly one non-null sort key.");
+        }
+        SortKey key = keys.get(0);
+        String column = "p." + key.field().getColumn();
+        String comparison = key.ascending() ? ">" : "<";
+        where.add("(" + column + " " + comparison + " ? OR (" + column + " = ? AND p.project_id " + idComparison + " ?))");
+        Object sortValue = key.field().toParameter(afterSortValue);
+        parameters.add(sortValue);
+        parameters.add(sortValue);
+        parameters.add(afterProjectId);
+    }
+
+    /* An explicit PROJECT_ID key sets the direction of the project ID tie-breaker; otherwise it ascends. */
+    private boolean projectIdAscending() {
+        return sortKeys.stream()
+                .filter(key -> key.field() == SortField.PROJECT_ID)
+                .findFirst()
+                .map(SortKey::ascending)
+                .orElse(true);
+    }
+
+    private static void range(List<String> where, List<Object> parameters, String column, Object min, Object max) {
+        if (Objects.nonNull(min)) {
+            where.add(column + " >= ?");
+            parameters.add(min);
+        }
+        if (Objects.nonNull(max)) {
+            where.add(column + " <= ?");
+            parameters.add(max);
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
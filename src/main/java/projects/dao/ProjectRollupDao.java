@@ -0,0 +1,232 @@
+package projects.dao;
+
+import entity.Material;
+import entity.Project;
+import entity.ProjectRollup;
+import projects.dao.metrics.DaoMetrics;
+import projects.exceptions.DbException;
+import provided.util.DaoBase;
+import provided.util.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads and maintains the project_rollup summary table, which holds each project's material cost,
+ * material count, step count and hours variance. The {@link ProjectDao} and {@link StepDao} write
+ * paths keep it current inside their own transactions, so a rollup is never out of step with its
+ * project: a new project gets a rollup with zero totals, and each later write applies its change
+ * to the totals instead of recomputing them from the child rows.
+ * <p>
+ * Rows changed outside the DAO are not reflected until {@link #rebuildAllRollups()} recomputes
+ * every rollup from scratch.
+ */
+public class ProjectRollupDao extends DaoBase {
+    private static final String ROLLUP_TABLE = "project_rollup";
+    private static final int IN_LIST_CHUNK_SIZE = 500;
+
+    /* Computes every project's rollup from its child rows. */
+    private static final String INSERT_ALL_ROLLUPS_SQL = ""
+            + "INSERT INTO " + ROLLUP_TABLE
+            + " (project_id, material_cost, material_count, step_count, estimated_hours, actual_hours, hours_variance) "
+            + "SELECT p.project_id, "
+            + "COALESCE((SELECT SUM(m.num_required * m.cost) FROM material m WHERE m.project_id = p.project_id), 0), "
+            + "(SELECT COUNT(*) FROM material m WHERE m.project_id = p.project_id), "
+            + "(SELECT COUNT(*) FROM step s WHERE s.project_id = p.project_id), "
+            + "p.estimated_hours, p.actual_hours, p.actual_hours - p.estimated_hours "
+            + "FROM project p";
+
+    /**
+     * Creates the rollups of newly inserted projects, which have no materials or steps yet, on the
+     * caller's connection and transaction.
+     */
+    void insertRollups(Connection conn, Collection<Integer> projectIds) throws SQLException {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(projectIds));
+        for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_CHUNK_SIZE));
+            String sql = "INSERT INTO " + ROLLUP_TABLE
+                    + " (project_id, estimated_hours, actual_hours, hours_variance)"
+                    + " SELECT project_id, estimated_hours, actual_hours, actual_hours - estimated_hours"
+                    + " FROM project WHERE project_id IN (" + placeholders(chunk.size()) + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    setParameter(stmt, i + 1, chunk.get(i), Integer.class);
+                }
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Copies the hours of projects whose details were just updated into their rollups, on the
+     * caller's connection and transaction.
+     */
+    void updateHours(Connection conn, Collection<Project> projects) throws SQLException {
+        if (projects.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE " + ROLLUP_TABLE
+                + " SET estimated_hours = ?, actual_hours = ?, hours_variance = ? WHERE project_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Project project : projects) {
+                BigDecimal estimated = project.getEstimatedHours();
+                BigDecimal actual = project.getActualHours();
+                BigDecimal variance = Objects.isNull(estimated) || Objects.isNull(actual) ? null : actual.subtract(estimated);
+                setParameter(stmt, 1, estimated, BigDecimal.class);
+                setParameter(stmt, 2, actual, BigDecimal.class);
+                setParameter(stmt, 3, variance, BigDecimal.class);
+                setParameter(stmt, 4, project.getProjectId(), Integer.class);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Adds materials just inserted for a project to its material cost and count, on the caller's
+     * connection and transaction. As in SQL, a material with no quantity or cost adds no cost.
+     */
+    void addMaterials(Connection conn, Integer projectId, Collection<Material> materials) throws SQLException {
+        BigDecimal cost = BigDecimal.ZERO;
+        for (Material material : materials) {
+            if (Objects.nonNull(material.getNumRequired()) && Objects.nonNull(material.getCost())) {
+                cost = cost.add(material.getCost().multiply(BigDecimal.valueOf(material.getNumRequired())));
+            }
+        }
+        String sql = "UPDATE " + ROLLUP_TABLE
+                + " SET material_cost = material_cost + ?, material_count = material_count + ? WHERE project_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setParameter(stmt, 1, cost, BigDecimal.class);
+            setParameter(stmt, 2, materials.size(), Integer.class);
+            setParameter(stmt, 3, projectId, Integer.class);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Adds {@code delta} steps, negative for deleted ones, to a project's step count, on the
+     * caller's connection and transaction.
+     */
+    void addSteps(Connection conn, Integer projectId, int delta) throws SQLException {
+        String sql = "UPDATE " + ROLLUP_TABLE + " SET step_count = step_count + ? WHERE project_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setParameter(stmt, 1, delta, Integer.class);
+            setParameter(stmt, 2, projectId, Integer.class);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Recomputes the rollup of every project from its child rows in one transaction, e.g. after a
+     * bulk load that bypassed the DAO.
+     */
+    public void rebuildAllRollups() {
+        DaoMetrics.time("rebuildAllRollups", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+                try (PreparedStatement delete = conn.prepareStatement("DELETE FROM " + ROLLUP_TABLE);
+                     PreparedStatement insert = conn.prepareStatement(INSERT_ALL_ROLLUPS_SQL)) {
+                    delete.executeUpdate();
+                    insert.executeUpdate();
+                    commitTransaction(conn);
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Returns the rollups of the given projects, in the order their IDs were first given. IDs
+     * without a project are skipped.
+     */
+    public List<ProjectRollup> fetchRollups(Collection<Integer> projectIds) {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(projectIds));
+        Map<Integer, ProjectRollup> rollupsById = new HashMap<>();
+        DaoMetrics.time("fetchRollups", () -> {
+            try (Connection conn = DbConnection.getReadConnection()) {
+                startReadOnly(conn);
+                for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+                    List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_CHUNK_SIZE));
+                    String sql = "SELECT * FROM " + ROLLUP_TABLE + " WHERE project_id IN (" + placeholders(chunk.size()) + ")";
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            setParameter(stmt, i + 1, chunk.get(i), Integer.class);
+                        }
+                        for (ProjectRollup rollup : query(stmt)) {
+                            rollupsById.put(rollup.getProjectId(), rollup);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+        List<ProjectRollup> rollups = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ProjectRollup rollup = rollupsById.get(id);
+            if (Objects.nonNull(rollup)) {
+                rollups.add(rollup);
+            }
+        }
+        return rollups;
+    }
+
+    /**
+     * Returns the rollups of the projects with the highest total material cost.
+     */
+    public List<ProjectRollup> fetchMostExpensive(int limit) {
+        String sql = "SELECT * FROM " + ROLLUP_TABLE + " ORDER BY material_cost DESC, project_id LIMIT ?";
+        return fetchWith("fetchMostExpensive", sql, limit);
+    }
+
+    /**
+     * Returns the rollups of the projects whose actual hours exceed the estimate by at least
+     * {@code minVariance} hours, largest overrun first.
+     */
+    public List<ProjectRollup> fetchOverEstimate(BigDecimal minVariance, int limit) {
+        String sql = "SELECT * FROM " + ROLLUP_TABLE
+                + " WHERE hours_variance >= ? ORDER BY hours_variance DESC, project_id LIMIT ?";
+        return fetchWith("fetchOverEstimate", sql, minVariance, limit);
+    }
+
+    private List<ProjectRollup> fetchWith(String operation, String sql, Object... parameters) {
+        return DaoMetrics.time(operation, () -> {
+            try (Connection conn = DbConnection.getReadConnection()) {
+                startReadOnly(conn);
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        setParameter(stmt, i + 1, parameters[i], parameters[i].getClass());
+                    }
+                    return query(stmt);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    private List<ProjectRollup> query(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            List<ProjectRollup> rollups = new ArrayList<>();
+            RowMapper<ProjectRollup> mapper = rowMapper(rs, ProjectRollup.class);
+            while (rs.next()) {
+                rollups.add(mapper.map(rs));
+            }
+            return rollups;
+        }
+    }
+}
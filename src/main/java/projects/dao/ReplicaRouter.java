@@ -0,0 +1,177 @@
+package projects.dao;
+
+import projects.exceptions.DbException;
+
+import java.sql.Connection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Routes connections between a write primary and any number of read replicas. Writes always go to
+ * the primary. Reads are spread across the replicas by a {@link Policy}, except within a
+ * {@link Session}'s read-your-writes window: while the session holds a write connection and for
+ * {@code readYourWritesMillis} after it hands the connection back (that is, after the commit),
+ * its reads go to the primary, so it always sees its own modifications even while the replicas
+ * are catching up. If a replica cannot supply a connection the read falls back to the primary.
+ * <p>
+ * Each thread has its own session. Code that writes or reads on other threads on a caller's
+ * behalf, such as {@code AsyncProjectService} or the write-behind flush, carries the caller's
+ * session to those threads with {@link #currentSession()} and {@link #bindSession(Session)}.
+ */
+public class ReplicaRouter implements AutoCloseable {
+    public enum Policy {
+        ROUND_ROBIN, RANDOM, LEAST_ACTIVE
+    }
+
+    /**
+     * One client's read-your-writes window. Thread-safe, so it can be shared by the threads
+     * working for that client.
+     */
+    public static final class Session {
+        private final AtomicInteger openWrites = new AtomicInteger();
+        private final AtomicLong lastWriteAt = new AtomicLong();
+
+        /**
+         * Records a write committed at {@code writtenAt} on this session's behalf.
+         */
+        public void noteWrite(long writtenAt) {
+            lastWriteAt.accumulateAndGet(writtenAt, Math::max);
+        }
+
+        boolean hasRecentWrite(long windowMillis) {
+            return openWrites.get() > 0
+                    || (lastWriteAt.get() > 0 && System.currentTimeMillis() - lastWriteAt.get() <= windowMillis);
+        }
+    }
+
+    private final ConnectionPool primary;
+    private final List<ConnectionPool> replicas;
+    private final Policy policy;
+    private final long readYourWritesMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ThreadLocal<Session> sessions;
+    private final ThreadLocal<Boolean> primaryReads;
+
+    public ReplicaRouter(ConnectionPool primary, List<ConnectionPool> replicas, Policy policy,
+                         long readYourWritesMillis) {
+        this(primary, replicas, policy, readYourWritesMillis, ThreadLocal.withInitial(Session::new),
+                ThreadLocal.withInitial(() -> false));
+    }
+
+    private ReplicaRouter(ConnectionPool primary, List<ConnectionPool> replicas, Policy policy,
+                          long readYourWritesMillis, ThreadLocal<Session> sessions,
+                          ThreadLocal<Boolean> primaryReads) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.policy = policy;
+        this.readYourWritesMillis = readYourWritesMillis;
+        this.sessions = sessions;
+        this.primaryReads = primaryReads;
+    }
+
+    /**
+     * Returns a router over other pools for the same databases, e.g. pools whose connections have
+     * different connection properties, that shares this router's sessions: a write through either
+     * router sends both routers' reads for that session to the primary. It also follows
+     * {@link #readFromPrimary(Supplier)}.
+     */
+    public ReplicaRouter withPools(ConnectionPool primary, List<ConnectionPool> replicas) {
+        return new ReplicaRouter(primary, replicas, policy, readYourWritesMillis, sessions, primaryReads);
+    }
+
+    /**
+     * Borrows a primary connection. The current session reads from the primary until
+     * {@code readYourWritesMillis} after the connection is handed back.
+     */
+    public Connection borrowForWrite() {
+        Session session = sessions.get();
+        session.openWrites.incrementAndGet();
+        try {
+            return primary.borrow(() -> {
+                session.noteWrite(System.currentTimeMillis());
+                session.openWrites.decrementAndGet();
+            });
+        } catch (RuntimeException e) {
+            session.openWrites.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Borrows a connection for reads: from a replica, or from the primary if there are no replicas
+     * or the current session wrote recently, or the read is inside {@link #readFromPrimary(Supplier)}.
+     */
+    public Connection borrowForRead() {
+        if (replicas.isEmpty() || primaryReads.get() || sessions.get().hasRecentWrite(readYourWritesMillis)) {
+            return primary.borrow();
+        }
+        try {
+            return choose().borrow();
+        } catch (DbException e) {
+            return primary.borrow();
+        }
+    }
+
+    /**
+     * Runs {@code body} with every read it makes on this thread sent to the primary, for data that
+     * must not come from a lagging replica, such as a copy that will be cached.
+     */
+    public <T> T readFromPrimary(Supplier<T> body) {
+        boolean previous = primaryReads.get();
+        primaryReads.set(true);
+        try {
+            return body.get();
+        } finally {
+            primaryReads.set(previous);
+        }
+    }
+
+    /**
+     * Returns the current thread's session, to carry to threads that work on its behalf.
+     */
+    public Session currentSession() {
+        return sessions.get();
+    }
+
+    /**
+     * Makes {@code session} the current thread's session and returns the one it replaces, which
+     * the caller should bind again when done.
+     */
+    public Session bindSession(Session session) {
+        Session previous = sessions.get();
+        sessions.set(session);
+        return previous;
+    }
+
+    public ConnectionPool getPrimary() {
+        return primary;
+    }
+
+    public List<ConnectionPool> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() {
+        primary.close();
+        replicas.forEach(ConnectionPool::close);
+    }
+
+    private ConnectionPool choose() {
+        switch (policy) {
+            case RANDOM:
+                return replicas.get(ThreadLocalRandom.current().nextInt(replicas.size()));
+            case LEAST_ACTIVE:
+                return replicas.stream()
+                        .min(Comparator.comparingInt(ConnectionPool::getActiveCount))
+                        .orElseThrow();
+            case ROUND_ROBIN:
+            default:
+                return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+        }
+    }
+}
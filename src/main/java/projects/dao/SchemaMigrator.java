@@ -0,0 +1,198 @@
+package projects.dao;
+
+import projects.exceptions.DbException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Brings the schema up to date in place by applying the versioned scripts in
+ * {@code src/main/resources/db/migration}. Applied versions are recorded in a
+ * {@code schema_version} table along with a checksum of the script, so each migration runs exactly
+ * once per database and an edited, already-applied script is reported instead of silently
+ * ignored.
+ * <p>
+ * To change the schema, add a new {@code V<n>__<description>.sql} script and append it to
+ * {@link #MIGRATIONS}. Never edit a script that has been released.
+ * <p>
+ * MySQL commits DDL implicitly, so a migration is not atomic: if one fails part-way, fix the
+ * database by hand before restarting. On MySQL a named lock keeps two instances starting at the
+ * same time from migrating concurrently. Other databases, such as the H2 database the tests use,
+ * have no named locks and are migrated without one.
+ */
+public class SchemaMigrator {
+    private static final String MIGRATION_PATH = "/db/migration/";
+    static final List<String> MIGRATIONS = List.of(
+            "V1__create_diy_projects_schema.sql",
+            "V2__add_access_path_indexes.sql",
+            "V3__add_project_name_index.sql",
+            "V4__create_project_rollup.sql",
+            "V5__add_project_version.sql",
+            "V6__gap_step_order.sql");
+
+    private static final String LOCK_NAME = "projects_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    /**
+     * Applies every migration that has not been applied yet, in version order.
+     *
+     * @return The number of migrations applied.
+     */
+    public int migrate() {
+        try (Connection conn = DbConnection.getConnection()) {
+            boolean locked = isMySql(conn);
+            if (locked) {
+                acquireLock(conn);
+            }
+            try {
+                createVersionTable(conn);
+                Map<Integer, Long> applied = fetchAppliedChecksums(conn);
+                int count = 0;
+                for (String script : MIGRATIONS) {
+                    int version = versionOf(script);
+                    String sql = readScript(script);
+                    long checksum = checksumOf(sql);
+                    Long appliedChecksum = applied.get(version);
+                    if (Objects.nonNull(appliedChecksum)) {
+                        if (appliedChecksum != checksum) {
+                            throw new DbException("Migration " + script + " has changed since it was applied.");
+                        }
+                        continue;
+                    }
+                    System.out.println("Applying schema migration " + script);
+                    for (String statement : splitStatements(sql)) {
+                        execute(conn, statement);
+                    }
+                    recordVersion(conn, version, script, checksum);
+                    count++;
+                }
+                return count;
+            } finally {
+                if (locked) {
+                    releaseLock(conn);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException(e);
+        }
+    }
+
+    private void createVersionTable(Connection conn) throws SQLException {
+        execute(conn, ""
+                + "CREATE TABLE IF NOT EXISTS schema_version ("
+                + "  version INT NOT NULL,"
+                + "  script VARCHAR(255) NOT NULL,"
+                + "  checksum BIGINT NOT NULL,"
+                + "  applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,"
+                + "  PRIMARY KEY (version)"
+                + ")");
+    }
+
+    private Map<Integer, Long> fetchAppliedChecksums(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private void recordVersion(Connection conn, int version, String script, long checksum) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, script, checksum) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, version);
+            stmt.setString(2, script);
+            stmt.setLong(3, checksum);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new DbException("Timed out waiting for the schema migration lock.");
+                }
+            }
+        }
+    }
+
+    private void releaseLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        }
+    }
+
+    private boolean isMySql(Connection conn) throws SQLException {
+        return "MySQL".equals(conn.getMetaData().getDatabaseProductName());
+    }
+
+    private void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    String readScript(String script) {
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(MIGRATION_PATH + script)) {
+            if (Objects.isNull(in)) {
+                throw new DbException("Migration script not found: " + MIGRATION_PATH + script);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new DbException(e);
+        }
+    }
+
+    private static int versionOf(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    private static long checksumOf(String sql) {
+        CRC32 crc = new CRC32();
+        crc.update(sql.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Splits a script into statements on semicolons at the end of a line, dropping blank lines
+     * and {@code --} comment lines. Migration scripts must keep to that layout.
+     */
+    static List<String> splitStatements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : sql.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String statement = current.toString().trim();
+                statements.add(statement.substring(0, statement.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+}
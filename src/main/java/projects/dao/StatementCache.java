@@ -0,0 +1,193 @@
+package projects.dao;
+
+import projects.dao.metrics.DaoMetrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded LRU cache of prepared statements for one physical connection, keyed by SQL and the
+ * statement options. {@link #prepare(Method, Object[])} hands out proxies whose {@code close()}
+ * resets the statement and puts it back in the cache, so repeated DAO calls on a long-lived pooled
+ * connection only parse (and, with {@code useServerPrepStmts}, server-prepare) each statement once.
+ * <p>
+ * A statement that is already checked out is never handed out twice; a second request for the
+ * same SQL gets an ordinary, uncached statement instead.
+ * <p>
+ * Each execute call on a statement handed out here, cached or not, is recorded as a statement of
+ * the current DAO operation; a batch counts as one.
+ */
+class StatementCache {
+    private final Connection physical;
+    private final int maxSize;
+    private final Map<String, CachedStatement> statements;
+
+    StatementCache(Connection physical, int maxSize) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    CachedStatement evicted = eldest.getValue();
+                    evicted.evicted = true;
+                    if (!evicted.inUse) {
+                        closeQuietly(evicted.statement);
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Prepares a statement through one of the {@code Connection.prepareStatement} overloads,
+     * reusing a cached statement when an idle one exists for the same arguments.
+     *
+     * @param method The {@code prepareStatement} overload that was called.
+     * @param args   The arguments it was called with; the first is the SQL.
+     */
+    synchronized PreparedStatement prepare(Method method, Object[] args) throws SQLException {
+        if (maxSize <= 0) {
+            return (PreparedStatement) countExecutions(invoke(method, args), PreparedStatement.class);
+        }
+        String key = args.length == 1 ? (String) args[0] : Arrays.toString(args);
+        CachedStatement cached = statements.get(key);
+        if (Objects.nonNull(cached) && cached.inUse) {
+            return (PreparedStatement) countExecutions(invoke(method, args), PreparedStatement.class);
+        }
+        if (Objects.isNull(cached) || cached.statement.isClosed()) {
+            cached = new CachedStatement(invoke(method, args));
+            statements.put(key, cached);
+        }
+        cached.inUse = true;
+        return cached.proxy;
+    }
+
+    synchronized int size() {
+        return statements.size();
+    }
+
+    /**
+     * Closes every cached statement. Called just before the physical connection is closed.
+     */
+    synchronized void closeAll() {
+        List<CachedStatement> all = new ArrayList<>(statements.values());
+        statements.clear();
+        all.forEach(cached -> closeQuietly(cached.statement));
+    }
+
+    private synchronized void release(CachedStatement cached) {
+        cached.inUse = false;
+        try {
+            ResultSet rs = cached.statement.getResultSet();
+            if (Objects.nonNull(rs)) {
+                rs.close();
+            }
+            cached.statement.clearParameters();
+            cached.statement.clearBatch();
+            if (cached.statement.getFetchSize() != 0) {
+                cached.statement.setFetchSize(0);
+            }
+        } catch (SQLException e) {
+            cached.evicted = true;
+            statements.values().remove(cached);
+        }
+        if (cached.evicted) {
+            closeQuietly(cached.statement);
+        }
+    }
+
+    private PreparedStatement invoke(Method method, Object[] args) throws SQLException {
+        try {
+            return (PreparedStatement) method.invoke(physical, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    /**
+     * Wraps a statement that is not cached so that, like a cached one, each execute call is
+     * recorded as a statement of the current DAO operation.
+     *
+     * @param type The JDBC interface the statement was created as.
+     */
+    static Statement countExecutions(Statement statement, Class<?> type) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        DaoMetrics.recordStatement();
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            /* The statement is being discarded either way. */
+        }
+    }
+
+    private class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || statement.isClosed();
+                default:
+                    if (!inUse && method.getDeclaringClass() != Object.class) {
+                        throw new SQLException("Statement has already been closed.");
+                    }
+                    if (method.getName().startsWith("execute")) {
+                        DaoMetrics.recordStatement();
+                    }
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
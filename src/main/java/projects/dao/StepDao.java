@@ -0,0 +1,422 @@
+package projects.dao;
+
+import entity.Step;
+import projects.dao.metrics.DaoMetrics;
+import projects.exceptions.DbException;
+import provided.util.DaoBase;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Writes steps while keeping them in order. A step's position is its {@code step_order} key,
+ * and keys are spaced {@value #GAP} apart rather than numbered 1, 2, 3, so:
+ * <ul>
+ * <li>appending takes the project's highest key plus {@value #GAP} (the last entry of the
+ * (project_id, step_order) index), not a COUNT(*) of its steps;</li>
+ * <li>inserting or moving a step between two others gives it the midpoint of their keys, and only
+ * that step's row is written;</li>
+ * <li>deleting a step just leaves a gap.</li>
+ * </ul>
+ * Repeated inserts at the same place halve the gap each time. When a gap falls below
+ * {@value #MIN_GAP} the project's steps are renumbered in the background; only if a gap is
+ * already used up is the project renumbered before the insert.
+ * <p>
+ * Every write first bumps the project's version, which also row-locks the project, so concurrent
+ * writers of one project's steps take turns and never pick the same key.
+ */
+public class StepDao extends DaoBase {
+    private static final String PROJECT_TABLE = "project";
+    private static final String STEP_TABLE = "step";
+
+    /* Distance between consecutive keys after a renumber, and of each appended step. */
+    static final int GAP = 1024;
+    private static final int MIN_GAP = 8;
+    private static final int NO_KEY = -1;
+
+    private static final ExecutorService RENUMBERER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "step-renumberer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Set<Integer> RENUMBER_QUEUED = ConcurrentHashMap.newKeySet();
+
+    private final ProjectRollupDao rollupDao = new ProjectRollupDao();
+    private final Consumer<Integer> onRenumbered;
+
+    public StepDao() {
+        this(projectId -> {});
+    }
+
+    /**
+     * @param onRenumbered Called with the project ID after a project's steps are renumbered,
+     *                     including by the background renumberer, so callers can drop copies of
+     *                     the project they hold.
+     */
+    public StepDao(Consumer<Integer> onRenumbered) {
+        this.onRenumbered = onRenumbered;
+    }
+
+    /**
+     * Adds a step after the project's last step.
+     *
+     * @return The new step, or empty if the project does not exist.
+     */
+    public Optional<Step> appendStep(Integer projectId, String stepText) {
+        return DaoMetrics.time("appendStep", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+                try {
+                    if (!bumpProjectVersion(conn, projectId)) {
+                        rollbackTransaction(conn);
+                        return Optional.empty();
+                    }
+                    Step step = insert(conn, projectId, stepText, firstAppendKey(conn, projectId, 1));
+                    rollupDao.addSteps(conn, projectId, 1);
+                    commitTransaction(conn);
+                    return Optional.of(step);
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Adds a step directly after {@code afterStepId}, or before the first step if it is null.
+     *
+     * @return The new step, or empty if the project or the step to insert after does not exist.
+     */
+    public Optional<Step> insertStepAfter(Integer projectId, Integer afterStepId, String stepText) {
+        return DaoMetrics.time("insertStepAfter", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+                try {
+                    if (!bumpProjectVersion(conn, projectId)) {
+                        rollbackTransaction(conn);
+                        return Optional.empty();
+                    }
+                    int[] bounds = boundsAfter(conn, projectId, afterStepId, null);
+                    if (Objects.isNull(bounds)) {
+                        rollbackTransaction(conn);
+                        return Optional.empty();
+                    }
+                    int stepOrder = keyBetween(bounds);
+                    if (stepOrder == NO_KEY) {
+                        renumber(conn, projectId);
+                        bounds = boundsAfter(conn, projectId, afterStepId, null);
+                        stepOrder = keyBetween(bounds);
+                    }
+                    Step step = insert(conn, projectId, stepText, stepOrder);
+                    rollupDao.addSteps(conn, projectId, 1);
+                    commitTransaction(conn);
+                    renumberLaterIfCrowded(projectId, bounds, stepOrder);
+                    return Optional.of(step);
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Moves a step to directly after {@code afterStepId} in the same project, or to the front if
+     * it is null. Only the moved step's row is written.
+     *
+     * @return The ID of the step's project, or empty if the step, or the step to move it after,
+     * does not exist.
+     */
+    public Optional<Integer> moveStep(Integer stepId, Integer afterStepId) {
+        return DaoMetrics.time("moveStep", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+                try {
+                    Integer projectId = fetchProjectIdOfStep(conn, stepId);
+                    if (Objects.isNull(projectId) || !bumpProjectVersion(conn, projectId)) {
+                        rollbackTransaction(conn);
+                        return Optional.empty();
+                    }
+                    if (stepId.equals(afterStepId)) {
+                        commitTransaction(conn);
+                        return Optional.of(projectId);
+                    }
+                    int[] bounds = boundsAfter(conn, projectId, afterStepId, stepId);
+                    if (Objects.isNull(bounds)) {
+                        rollbackTransaction(conn);
+                        return Optional.empty();
+                    }
+                    int stepOrder = keyBetween(bounds);
+                    if (stepOrder == NO_KEY) {
+                        renumber(conn, projectId);
+                        bounds = boundsAfter(conn, projectId, afterStepId, stepId);
+                        stepOrder = keyBetween(bounds);
+                    }
+                    String sql = "UPDATE " + STEP_TABLE + " SET step_order = ? WHERE step_id = ?";
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        setParameter(stmt, 1, stepOrder, Integer.class);
+                        setParameter(stmt, 2, stepId, Integer.class);
+                        stmt.executeUpdate();
+                    }
+                    commitTransaction(conn);
+                    renumberLaterIfCrowded(projectId, bounds, stepOrder);
+                    return Optional.of(projectId);
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Deletes a step. The steps after it keep their keys.
+     *
+     * @return The deleted step, or empty if it did not exist.
+     */
+    public Optional<Step> deleteStep(Integer stepId) {
+        return DaoMetrics.time("deleteStep", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+                try {
+                    Integer projectId = fetchProjectIdOfStep(conn, stepId);
+                    if (Objects.isNull(projectId) || !bumpProjectVersion(conn, projectId)) {
+                        rollbackTransaction(conn);
+                        return Optional.empty();
+                    }
+                    Step step = null;
+                    String select = "SELECT * FROM " + STEP_TABLE + " WHERE step_id = ?";
+                    try (PreparedStatement stmt = conn.prepareStatement(select)) {
+                        setParameter(stmt, 1, stepId, Integer.class);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            if (rs.next()) {
+                                step = extract(rs, Step.class);
+                            }
+                        }
+                    }
+                    if (Objects.isNull(step)) {
+                        /* Deleted by another transaction before the project was locked. */
+                        rollbackTransaction(conn);
+                        return Optional.empty();
+                    }
+                    String delete = "DELETE FROM " + STEP_TABLE + " WHERE step_id = ?";
+                    try (PreparedStatement stmt = conn.prepareStatement(delete)) {
+                        setParameter(stmt, 1, stepId, Integer.class);
+                        stmt.executeUpdate();
+                    }
+                    rollupDao.addSteps(conn, projectId, -1);
+                    commitTransaction(conn);
+                    return Optional.of(step);
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+    }
+
+    /**
+     * Respaces the project's step keys {@value #GAP} apart, keeping their order. Normally run in
+     * the background when gaps get small; safe to run at any time.
+     */
+    public void renumberSteps(Integer projectId) {
+        boolean renumbered = DaoMetrics.time("renumberSteps", () -> {
+            try (Connection conn = DbConnection.getConnection()) {
+                startTransaction(conn);
+                try {
+                    if (!bumpProjectVersion(conn, projectId)) {
+                        rollbackTransaction(conn);
+                        return false;
+                    }
+                    renumber(conn, projectId);
+                    commitTransaction(conn);
+                    return true;
+                } catch (Exception e) {
+                    rollbackTransaction(conn);
+                    throw new DbException(e);
+                }
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+        if (renumbered) {
+            onRenumbered.accept(projectId);
+        }
+    }
+
+    /**
+     * Increments the project's version, which also locks the project row until the transaction
+     * ends. Call it first in any transaction that writes the project's child rows.
+     *
+     * @return False if the project does not exist.
+     */
+    boolean bumpProjectVersion(Connection conn, Integer projectId) throws SQLException {
+        String sql = "UPDATE " + PROJECT_TABLE + " SET version = version + 1 WHERE project_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setParameter(stmt, 1, projectId, Integer.class);
+            return stmt.executeUpdate() == 1;
+        }
+    }
+
+    /**
+     * Returns the first of {@code count} keys, {@value #GAP} apart, for steps appended after the
+     * project's last step, renumbering the project first if they would not fit. Call with the
+     * project locked.
+     */
+    int firstAppendKey(Connection conn, Integer projectId, int count) throws SQLException {
+        long first = maxKey(conn, projectId) + GAP;
+        if (first + (long) GAP * (count - 1) > Integer.MAX_VALUE) {
+            renumber(conn, projectId);
+            first = maxKey(conn, projectId) + GAP;
+            if (first + (long) GAP * (count - 1) > Integer.MAX_VALUE) {
+                throw new SQLException("Project " + projectId + " cannot hold " + count + " more steps.");
+            }
+        }
+        return (int) first;
+    }
+
+    private long maxKey(Connection conn, Integer projectId) throws SQLException {
+        String sql = "SELECT MAX(step_order) FROM " + STEP_TABLE + " WHERE project_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setParameter(stmt, 1, projectId, Integer.class);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private Step insert(Connection conn, Integer projectId, String stepText, int stepOrder) throws SQLException {
+        String sql = "INSERT INTO " + STEP_TABLE + " (project_id, step_text, step_order) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            setParameter(stmt, 1, projectId, Integer.class);
+            setParameter(stmt, 2, stepText, String.class);
+            setParameter(stmt, 3, stepOrder, Integer.class);
+            stmt.executeUpdate();
+            Step step = new Step();
+            step.setStepId(getGeneratedId(stmt));
+            step.setProjectId(projectId);
+            step.setStepText(stepText);
+            step.setStepOrder(stepOrder);
+            return step;
+        }
+    }
+
+    private Integer fetchProjectIdOfStep(Connection conn, Integer stepId) throws SQLException {
+        String sql = "SELECT project_id FROM " + STEP_TABLE + " WHERE step_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setParameter(stmt, 1, stepId, Integer.class);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    /*
+     * Returns {previous key, next key} for a position directly after afterStepId (or at the
+     * front), ignoring excludedStepId, or null if afterStepId is not a step of the project. The
+     * next key is -1 when the position is at the end.
+     */
+    private int[] boundsAfter(Connection conn, Integer projectId, Integer afterStepId, Integer excludedStepId)
+            throws SQLException {
+        int previous = 0;
+        if (Objects.nonNull(afterStepId)) {
+            String sql = "SELECT step_order FROM " + STEP_TABLE + " WHERE step_id = ? AND project_id = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                setParameter(stmt, 1, afterStepId, Integer.class);
+                setParameter(stmt, 2, projectId, Integer.class);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    previous = rs.getInt(1);
+                }
+            }
+        }
+        String sql = "SELECT step_order FROM " + STEP_TABLE
+                + " WHERE project_id = ? AND step_order > ? AND step_id <> ? ORDER BY step_order LIMIT 1";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setParameter(stmt, 1, projectId, Integer.class);
+            setParameter(stmt, 2, previous, Integer.class);
+            setParameter(stmt, 3, Objects.isNull(excludedStepId) ? 0 : excludedStepId, Integer.class);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return new int[] {previous, rs.next() ? rs.getInt(1) : -1};
+            }
+        }
+    }
+
+    private static int keyBetween(int[] bounds) {
+        long previous = bounds[0];
+        if (bounds[1] < 0) {
+            long next = previous + GAP;
+            return next > Integer.MAX_VALUE ? NO_KEY : (int) next;
+        }
+        long next = bounds[1];
+        return next - previous < 2 ? NO_KEY : (int) ((previous + next) >>> 1);
+    }
+
+    /*
+     * Two passes, so the unique (project_id, step_order) index never sees a duplicate mid-update:
+     * the keys are first made negative, then each step gets its position times GAP in one batch.
+     */
+    private void renumber(Connection conn, Integer projectId) throws SQLException {
+        List<Integer> stepIds = new ArrayList<>();
+        String select = "SELECT step_id FROM " + STEP_TABLE + " WHERE project_id = ? ORDER BY step_order, step_id";
+        try (PreparedStatement stmt = conn.prepareStatement(select)) {
+            setParameter(stmt, 1, projectId, Integer.class);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    stepIds.add(rs.getInt(1));
+                }
+            }
+        }
+        String negate = "UPDATE " + STEP_TABLE + " SET step_order = -step_order WHERE project_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(negate)) {
+            setParameter(stmt, 1, projectId, Integer.class);
+            stmt.executeUpdate();
+        }
+        String respace = "UPDATE " + STEP_TABLE + " SET step_order = ? WHERE step_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(respace)) {
+            for (int position = 1; position <= stepIds.size(); position++) {
+                setParameter(stmt, 1, position * GAP, Integer.class);
+                setParameter(stmt, 2, stepIds.get(position - 1), Integer.class);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void renumberLaterIfCrowded(Integer projectId, int[] bounds, int stepOrder) {
+        boolean crowded = stepOrder - bounds[0] < MIN_GAP || (bounds[1] >= 0 && bounds[1] - stepOrder < MIN_GAP);
+        if (crowded && RENUMBER_QUEUED.add(projectId)) {
+            RENUMBERER.execute(() -> {
+                RENUMBER_QUEUED.remove(projectId);
+                try {
+                    renumberSteps(projectId);
+                } catch (DbException e) {
+                    System.err.println("Renumbering the steps of project " + projectId + " failed: " + e.getMessage());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package projects.dao.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide registry of DAO operation metrics.
+ * <p>
+ * A DAO method wraps its body in {@link #time(String, Supplier)}, or
+ * {@link #time(String, Runnable)} if it returns nothing:
+ *
+ * <pre>
+ * return DaoMetrics.time("fetchProjectById", () -> {
+ *     try (Connection conn = DbConnection.getConnection()) {
+ *         ...
+ *     }
+ * });
+ * </pre>
+ *
+ * While the body runs the operation is the thread's current operation, so statements executed,
+ * rows mapped and rollbacks further down the stack are attributed to it without being passed
+ * around.
+ * Connection acquisition is recorded as its own operation, {@value #CONNECTION_ACQUIRE}.
+ */
+public final class DaoMetrics {
+    public static final String CONNECTION_ACQUIRE = "connectionAcquire";
+    private static final String DOMAIN = "projects.dao";
+
+    private static final Map<String, OperationStats> OPERATIONS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<OperationStats> CURRENT = new ThreadLocal<>();
+
+    private DaoMetrics() {
+    }
+
+    /**
+     * Runs {@code body} as the named operation: it is the current operation for this thread while
+     * the body runs, and the elapsed time is recorded whether the body returns or throws.
+     */
+    public static <T> T time(String operation, Supplier<T> body) {
+        Timer timer = new Timer(forOperation(operation));
+        try {
+            return body.get();
+        } finally {
+            timer.stop();
+        }
+    }
+
+    public static void time(String operation, Runnable body) {
+        time(operation, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records the time spent borrowing a connection.
+     */
+    public static void recordConnectionAcquire(long nanos) {
+        forOperation(CONNECTION_ACQUIRE).recordLatency(nanos);
+    }
+
+    public static void recordStatement() {
+        OperationStats current = CURRENT.get();
+        if (Objects.nonNull(current)) {
+            current.recordStatement();
+        }
+    }
+
+    public static void recordRowMapped() {
+        OperationStats current = CURRENT.get();
+        if (Objects.nonNull(current)) {
+            current.recordRowMapped();
+        }
+    }
+
+    public static void recordRollback() {
+        OperationStats current = CURRENT.get();
+        if (Objects.nonNull(current)) {
+            current.recordRollback();
+        }
+    }
+
+    public static OperationStats forOperation(String operation) {
+        OperationStats stats = OPERATIONS.get(operation);
+        if (Objects.isNull(stats)) {
+            stats = OPERATIONS.computeIfAbsent(operation, DaoMetrics::register);
+        }
+        return stats;
+    }
+
+    public static Collection<OperationStats> getAll() {
+        return Collections.unmodifiableCollection(OPERATIONS.values());
+    }
+
+    private static OperationStats register(String operation) {
+        OperationStats stats = new OperationStats(operation);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":type=Operation,name=" + ObjectName.quote(operation));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(stats, name);
+            }
+        } catch (JMException e) {
+            /* Metrics are still collected and available through getAll() without JMX. */
+        }
+        return stats;
+    }
+
+    private static final class Timer {
+        private final OperationStats stats;
+        private final OperationStats previous;
+        private final long start;
+
+        private Timer(OperationStats stats) {
+            this.stats = stats;
+            this.previous = CURRENT.get();
+            CURRENT.set(stats);
+            this.start = System.nanoTime();
+        }
+
+        void stop() {
+            stats.recordLatency(System.nanoTime() - start);
+            if (Objects.isNull(previous)) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package projects.dao.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and a latency histogram for one named DAO operation. Published over JMX as
+ * {@code projects.dao:type=Operation,name=<operation>}.
+ */
+public class OperationStats implements OperationStatsMBean {
+    private final String name;
+    private final LatencyHistogram latencyNanos = new LatencyHistogram();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder rowsMapped = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void recordLatency(long nanos) {
+        latencyNanos.record(nanos);
+    }
+
+    void recordStatement() {
+        statements.increment();
+    }
+
+    void recordRowMapped() {
+        rowsMapped.increment();
+    }
+
+    void recordRollback() {
+        rollbacks.increment();
+    }
+
+    @Override
+    public long getCount() {
+        return latencyNanos.getCount();
+    }
+
+    @Override
+    public long getStatementCount() {
+        return statements.sum();
+    }
+
+    @Override
+    public long getRowsMapped() {
+        return rowsMapped.sum();
+    }
+
+    @Override
+    public long getRollbackCount() {
+        return rollbacks.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latencyNanos.getMean() / 1_000.0;
+    }
+
+    @Override
+    public long getP50Micros() {
+        return toMicros(latencyNanos.getPercentile(50));
+    }
+
+    @Override
+    public long getP95Micros() {
+        return toMicros(latencyNanos.getPercentile(95));
+    }
+
+    @Override
+    public long getP99Micros() {
+        return toMicros(latencyNanos.getPercentile(99));
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return toMicros(latencyNanos.getMax());
+    }
+
+    @Override
+    public void reset() {
+        latencyNanos.reset();
+        statements.reset();
+        rowsMapped.reset();
+        rollbacks.reset();
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return name + ": count=" + getCount() + ", p50=" + getP50Micros() + "us, p95=" + getP95Micros()
+                + "us, p99=" + getP99Micros() + "us, max=" + getMaxMicros() + "us, statements=" + getStatementCount()
+                + ", rows=" + getRowsMapped() + ", rollbacks=" + getRollbackCount();
+    }
+}
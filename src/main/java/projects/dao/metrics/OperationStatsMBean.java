@@ -0,0 +1,26 @@
+package projects.dao.metrics;
+
+/**
+ * The JMX view of {@link OperationStats}. Latencies are in microseconds.
+ */
+public interface OperationStatsMBean {
+    long getCount();
+
+    long getStatementCount();
+
+    long getRowsMapped();
+
+    long getRollbackCount();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP95Micros();
+
+    long getP99Micros();
+
+    long getMaxMicros();
+
+    void reset();
+}
@@ -3,21 +3,21 @@
  */
 package provided.util;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.sql.Time;
-import java.sql.Timestamp;
 import java.sql.Types;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
+import projects.dao.metrics.DaoMetrics;
+
 /**
  * This class contains utility methods for the DAO class.
  * 
@@ -54,9 +54,87 @@ public abstract class DaoBase {
    * @throws SQLException Thrown if an error occurs rolling back the transaction.
    */
   protected void rollbackTransaction(Connection conn) throws SQLException {
+    DaoMetrics.recordRollback();
     conn.rollback();
   }
 
+  /**
+   * This is the statement that opens a read-only transaction in which every query sees the same
+   * snapshot of the data. It can be sent on its own by {@link #startReadOnlyTransaction(Connection)}
+   * or at the start of a multi-statement batch that ends with a COMMIT.
+   */
+  protected static final String START_READ_ONLY_TRANSACTION_SQL =
+      "START TRANSACTION READ ONLY, WITH CONSISTENT SNAPSHOT";
+
+  /**
+   * This marks the connection read-only for a query that does not need a transaction. Auto-commit
+   * stays on, so there is no transaction set-up or commit round trip: MySQL runs an auto-commit
+   * SELECT as a read-only transaction on its own. With {@code readOnlyPropagatesToServer=false}
+   * on the connection URL, marking the connection is a local flag and costs no round trip either.
+   * 
+   * @param conn The connection that will only be used for reads.
+   * @throws SQLException Thrown if an error occurs.
+   */
+  protected void startReadOnly(Connection conn) throws SQLException {
+    conn.setReadOnly(true);
+  }
+
+  /**
+   * This marks the connection read-only and starts a read-only, consistent-snapshot transaction.
+   * Use it for reads made of several queries that must see the same data. The database can skip
+   * the bookkeeping it does for transactions that may write. End it with
+   * {@link #commitReadOnlyTransaction(Connection)}. Other databases, such as the one the tests
+   * use, do not have the MySQL statement, so on those auto-commit is turned off instead.
+   * 
+   * @param conn The connection on which to start the transaction.
+   * @throws SQLException Thrown if an error occurs starting the transaction.
+   */
+  protected void startReadOnlyTransaction(Connection conn) throws SQLException {
+    startReadOnly(conn);
+
+    if(isMySql(conn)) {
+      executeStatement(conn, START_READ_ONLY_TRANSACTION_SQL);
+    }
+    else {
+      conn.setAutoCommit(false);
+    }
+  }
+
+  /**
+   * Tells whether the connection is to MySQL, for the few MySQL-specific statements and driver
+   * settings that other databases reject.
+   */
+  protected boolean isMySql(Connection conn) throws SQLException {
+    return "MySQL".equals(conn.getMetaData().getDatabaseProductName());
+  }
+
+  /**
+   * Ends a transaction started with {@link #startReadOnlyTransaction(Connection)}.
+   * 
+   * @param conn The connection on which to end the transaction.
+   * @throws SQLException Thrown if an error occurs.
+   */
+  protected void commitReadOnlyTransaction(Connection conn) throws SQLException {
+    executeStatement(conn, "COMMIT");
+  }
+
+  /**
+   * Abandons a read-only transaction after an error. This is harmless if no transaction is open.
+   * 
+   * @param conn The connection on which to end the transaction.
+   * @throws SQLException Thrown if an error occurs.
+   */
+  protected void rollbackReadOnlyTransaction(Connection conn) throws SQLException {
+    DaoMetrics.recordRollback();
+    executeStatement(conn, "ROLLBACK");
+  }
+
+  private void executeStatement(Connection conn, String sql) throws SQLException {
+    try(Statement stmt = conn.createStatement()) {
+      stmt.execute(sql);
+    }
+  }
+
   /**
    * This sets a parameter on a prepared statement. If the parameter is null, it is handled
    * correctly.
@@ -136,10 +214,22 @@ public abstract class DaoBase {
     throw new DaoException("Unsupported class type: " + classType.getName());
   }
 
+  /**
+   * This returns a comma-separated list of the given number of parameter markers, for building an
+   * IN list: placeholders(3) returns "?,?,?".
+   * 
+   * @param count The number of markers
+   * @return The markers
+   */
+  protected String placeholders(int count) {
+    return String.join(",", Collections.nCopies(count, "?"));
+  }
+
   /**
    * This retrieves the number of child rows and adds one to the value. It is used to set the order
    * of a child row. For a *real* application, a more sophisticated approach is desired. This method
-   * does not allow for entity reordering and does not allow for an entity to be deleted.
+   * does not allow for entity reordering and does not allow for an entity to be deleted. Steps use
+   * the gapped keys of {@link projects.dao.StepDao} instead.
    * 
    * @param conn The connection
    * @param id The ID of the parent entity
@@ -192,19 +282,61 @@ public abstract class DaoBase {
     }
   }
 
+  /**
+   * This returns the integer primary key generated by the last insert executed on the given
+   * statement. The statement must have been prepared with {@link Statement#RETURN_GENERATED_KEYS}.
+   * Unlike {@link #getLastInsertId(Connection, String)}, this needs no extra query: the driver
+   * returns the key with the result of the insert.
+   * 
+   * @param stmt The statement that executed the insert
+   * @return The primary key value
+   * @throws SQLException Thrown if an error occurs or no key was generated
+   */
+  protected Integer getGeneratedId(Statement stmt) throws SQLException {
+    try(ResultSet rs = stmt.getGeneratedKeys()) {
+      if(rs.next()) {
+        return rs.getInt(1);
+      }
+
+      throw new SQLException("Unable to retrieve the primary key value. No generated keys!");
+    }
+  }
+
+  /**
+   * This returns all integer primary keys generated by the last batch executed on the given
+   * statement, in the order the rows were added to the batch.
+   * 
+   * @param stmt The statement that executed the batch
+   * @return The primary key values
+   * @throws SQLException Thrown if an error occurs
+   */
+  protected List<Integer> getGeneratedIds(Statement stmt) throws SQLException {
+    List<Integer> ids = new ArrayList<>();
+
+    try(ResultSet rs = stmt.getGeneratedKeys()) {
+      while(rs.next()) {
+        ids.add(rs.getInt(1));
+      }
+    }
+
+    return ids;
+  }
+
   /**
    * This extracts an object of the given type from a result set. The object must have a
-   * zero-argument constructor. It builds an object from a result set using reflection as follows:
+   * zero-argument constructor. It builds an object from a result set as follows:
    * <ol>
-   * <li>The zero-argument constructor is obtained.</li>
-   * <li>An object of the given class type is created.</li>
-   * <li>A list of fields is obtained using reflection.</li>
-   * <li>The field name is converted from Java naming to SQL naming conventions (camel case to snake
-   * case). Obviously, for this to work, the Java name must match the column name. So, if the Java
-   * name is numServings, the column name must be num_servings.</li>
+   * <li>An object of the given class type is created using the zero-argument constructor.</li>
+   * <li>Each field name is converted from Java naming to SQL naming conventions (camel case to
+   * snake case). Obviously, for this to work, the Java name must match the column name. So, if the
+   * Java name is numServings, the column name must be num_servings.</li>
    * <li>The value is assigned to the field in the object.</li>
    * </ol>
    * 
+   * The reflection needed to do this is only done once for each class and result set shape. See
+   * {@link RowMapper}. When extracting many rows from the same result set, obtain the mapper once
+   * with {@link #rowMapper(ResultSet, Class)} and call {@link RowMapper#map(ResultSet)} per row.
+   * 
    * Example: if a query returns values for a recipe, a Recipe object is returned. So:
    * 
    * <pre>
@@ -231,80 +363,20 @@ public abstract class DaoBase {
    * @return A populated class.
    */
   protected <T> T extract(ResultSet rs, Class<T> classType) {
-    try {
-      /* Obtain the constructor and create an object of the correct type. */
-      Constructor<T> con = classType.getConstructor();
-      T obj = con.newInstance();
-
-      /* Get the list of fields and loop through them. */
-      for(Field field : classType.getDeclaredFields()) {
-        String colName = camelCaseToSnakeCase(field.getName());
-        Class<?> fieldType = field.getType();
-
-        /*
-         * Set the field accessible flag which means that we can populate even private fields
-         * without using the setter.
-         */
-        field.setAccessible(true);
-        Object fieldValue = null;
-
-        try {
-          fieldValue = rs.getObject(colName);
-        }
-        catch(SQLException e) {
-          /*
-           * An exception caught here means that the field name isn't in the result set. Don't take
-           * any action.
-           */
-        }
-
-        /*
-         * Only set the value in the object if there is a value with the same name in the result
-         * set. This will preserve instance variables (like lists) that are assigned values when the
-         * object is created.
-         */
-        if(Objects.nonNull(fieldValue)) {
-          /*
-           * Convert the following types: Time -> LocalTime, and Timestamp -> LocalDateTime.
-           */
-          if(fieldValue instanceof Time && fieldType.equals(LocalTime.class)) {
-            fieldValue = ((Time)fieldValue).toLocalTime();
-          }
-          else if(fieldValue instanceof Timestamp && fieldType.equals(LocalDateTime.class)) {
-            fieldValue = ((Timestamp)fieldValue).toLocalDateTime();
-          }
-
-          field.set(obj, fieldValue);
-        }
-      }
-
-      return obj;
-
-    }
-    catch(Exception e) {
-      throw new DaoException("Unable to create object of type " + classType.getName(), e);
-    }
+    return rowMapper(rs, classType).map(rs);
   }
 
   /**
-   * This converts a camel case value (rowInsertTime) to snake case (row_insert_time).
+   * Returns the cached {@link RowMapper} for the given class and the columns of the given result
+   * set.
    * 
-   * @param identifier The name in camel case to convert.
-   * @return The name converted to snake case.
+   * @param <T> The type of object to map rows to.
+   * @param rs The result set. Only its metadata is read.
+   * @param classType The class to map rows to.
+   * @return The row mapper.
    */
-  private String camelCaseToSnakeCase(String identifier) {
-    StringBuilder nameBuilder = new StringBuilder();
-
-    for(char ch : identifier.toCharArray()) {
-      if(Character.isUpperCase(ch)) {
-        nameBuilder.append('_').append(Character.toLowerCase(ch));
-      }
-      else {
-        nameBuilder.append(ch);
-      }
-    }
-
-    return nameBuilder.toString();
+  protected <T> RowMapper<T> rowMapper(ResultSet rs, Class<T> classType) {
+    return RowMapper.forResultSet(rs, classType);
   }
 
   /**
@@ -0,0 +1,235 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import projects.dao.metrics.DaoMetrics;
+import provided.util.DaoBase.DaoException;
+
+/**
+ * This maps rows of a result set to objects of a single class. It does the same job as
+ * {@link DaoBase#extract(ResultSet, Class)} used to do with reflection on every row, but all of
+ * the expensive work is done once per (class, result set shape):
+ * <ol>
+ * <li>The zero-argument constructor is resolved to a method handle.</li>
+ * <li>Each field name is converted from camel case to snake case and matched against the column
+ * labels of the result set. Fields without a matching column are skipped up front, so no
+ * exception is thrown and swallowed per row.</li>
+ * <li>Each matching field gets a method handle setter and a column index.</li>
+ * </ol>
+ *
+ * Mappers are cached, so repeated queries with the same select list reuse the same mapper. As with
+ * {@code extract}, a null column value leaves the field at its initialized value.
+ *
+ * @param <T> The type of object produced for each row.
+ */
+public final class RowMapper<T> {
+  private static final Map<Class<?>, Map<String, RowMapper<?>>> CACHE = new ConcurrentHashMap<>();
+
+  private final String typeName;
+  private final MethodHandle constructor;
+  private final Binding[] bindings;
+
+  private RowMapper(String typeName, MethodHandle constructor, Binding[] bindings) {
+    this.typeName = typeName;
+    this.constructor = constructor;
+    this.bindings = bindings;
+  }
+
+  /**
+   * Returns the cached mapper for the given class and the shape of the given result set, building
+   * it if this is the first time the shape has been seen.
+   *
+   * @param <T> The type of object to map to.
+   * @param rs The result set. Only its metadata is read.
+   * @param classType The class to map rows to. It must have a public zero-argument constructor.
+   * @return The mapper.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> RowMapper<T> forResultSet(ResultSet rs, Class<T> classType) {
+    try {
+      ResultSetMetaData meta = rs.getMetaData();
+      String[] labels = new String[meta.getColumnCount()];
+      StringBuilder shape = new StringBuilder();
+
+      for(int col = 1; col <= labels.length; col++) {
+        labels[col - 1] = meta.getColumnLabel(col).toLowerCase(Locale.ROOT);
+        shape.append(labels[col - 1]).append(',');
+      }
+
+      Map<String, RowMapper<?>> byShape =
+          CACHE.computeIfAbsent(classType, key -> new ConcurrentHashMap<>());
+
+      return (RowMapper<T>)byShape.computeIfAbsent(shape.toString(),
+          key -> build(classType, labels));
+    }
+    catch(SQLException e) {
+      throw new DaoException("Unable to read result set metadata for " + classType.getName(), e);
+    }
+  }
+
+  /**
+   * Creates an object from the row the result set is currently positioned on.
+   *
+   * @param rs The result set, positioned on the correct row by the caller.
+   * @return A populated object.
+   */
+  @SuppressWarnings("unchecked")
+  public T map(ResultSet rs) {
+    try {
+      T obj = (T)constructor.invoke();
+      DaoMetrics.recordRowMapped();
+
+      for(Binding binding : bindings) {
+        Object value = binding.read(rs);
+
+        if(Objects.nonNull(value)) {
+          binding.setter.invoke(obj, value);
+        }
+      }
+
+      return obj;
+    }
+    catch(Throwable e) {
+      throw new DaoException("Unable to create object of type " + typeName, e);
+    }
+  }
+
+  private static <T> RowMapper<T> build(Class<T> classType, String[] labels) {
+    try {
+      MethodHandles.Lookup lookup =
+          MethodHandles.privateLookupIn(classType, MethodHandles.lookup());
+      MethodHandle constructor = lookup
+          .findConstructor(classType, MethodType.methodType(void.class))
+          .asType(MethodType.methodType(Object.class));
+
+      Map<String, Integer> columnIndexes = new HashMap<>();
+
+      for(int col = labels.length; col >= 1; col--) {
+        /* Iterating backwards means the first column wins when a label is duplicated. */
+        columnIndexes.put(labels[col - 1], col);
+      }
+
+      List<Binding> bindings = new ArrayList<>();
+
+      for(Field field : classType.getDeclaredFields()) {
+        if(Modifier.isStatic(field.getModifiers())) {
+          continue;
+        }
+
+        Integer column = columnIndexes.get(camelCaseToSnakeCase(field.getName()));
+
+        if(Objects.nonNull(column)) {
+          MethodHandle setter = lookup.unreflectSetter(field)
+              .asType(MethodType.methodType(void.class, Object.class, Object.class));
+          bindings.add(new Binding(column, field.getType(), setter));
+        }
+      }
+
+      return new RowMapper<>(classType.getName(), constructor, bindings.toArray(new Binding[0]));
+    }
+    catch(ReflectiveOperationException e) {
+      throw new DaoException("Unable to build a row mapper for " + classType.getName(), e);
+    }
+  }
+
+  /**
+   * This converts a camel case value (rowInsertTime) to snake case (row_insert_time).
+   *
+   * @param identifier The name in camel case to convert.
+   * @return The name converted to snake case.
+   */
+  static String camelCaseToSnakeCase(String identifier) {
+    StringBuilder nameBuilder = new StringBuilder(identifier.length() + 4);
+
+    for(int i = 0; i < identifier.length(); i++) {
+      char ch = identifier.charAt(i);
+
+      if(Character.isUpperCase(ch)) {
+        nameBuilder.append('_').append(Character.toLowerCase(ch));
+      }
+      else {
+        nameBuilder.append(ch);
+      }
+    }
+
+    return nameBuilder.toString();
+  }
+
+  /**
+   * A single column-to-field assignment. The getter used on the result set is chosen from the
+   * field type when the mapper is built.
+   */
+  private static final class Binding {
+    private final int column;
+    private final Class<?> fieldType;
+    private final MethodHandle setter;
+
+    Binding(int column, Class<?> fieldType, MethodHandle setter) {
+      this.column = column;
+      this.fieldType = fieldType;
+      this.setter = setter;
+    }
+
+    Object read(ResultSet rs) throws SQLException {
+      if(fieldType == Integer.class) {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+      }
+
+      if(fieldType == String.class) {
+        return rs.getString(column);
+      }
+
+      if(fieldType == BigDecimal.class) {
+        return rs.getBigDecimal(column);
+      }
+
+      if(fieldType == Long.class) {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+      }
+
+      if(fieldType == Double.class) {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+      }
+
+      Object value = rs.getObject(column);
+
+      /*
+       * Convert the following types: Time -> LocalTime, and Timestamp -> LocalDateTime.
+       */
+      if(value instanceof Time && fieldType == LocalTime.class) {
+        return ((Time)value).toLocalTime();
+      }
+
+      if(value instanceof Timestamp && fieldType == LocalDateTime.class) {
+        return ((Timestamp)value).toLocalDateTime();
+      }
+
+      return value;
+    }
+  }
+}
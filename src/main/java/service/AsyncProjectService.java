@@ -0,0 +1,167 @@
+package service;
+
+import entity.Category;
+import entity.Material;
+import entity.Project;
+import entity.Step;
+import projects.dao.DbConnection;
+import projects.dao.ProjectDao;
+import projects.dao.ReplicaRouter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * An asynchronous front end to {@link ProjectService}. Every call runs on its own virtual thread
+ * and returns a {@link CompletableFuture}, so callers can fan out many project loads without
+ * tying up platform threads. Blocking JDBC calls only park the virtual thread.
+ * <p>
+ * {@link #fetchProjectById(Integer)} loads the project row and its materials, steps and
+ * categories concurrently, each on a separate pooled connection. The four reads are not one
+ * transaction, so a concurrent write can be seen by some of them and not others. Each load first
+ * takes four permits, one per connection, from a semaphore sized to the primary pool, so
+ * concurrent loads queue for permits instead of splitting the pool between them and timing out
+ * waiting for connections.
+ * <p>
+ * Each call runs in the calling thread's read-your-writes session (see {@link ReplicaRouter}), so
+ * a write made through this service sends the caller's later reads, on any thread, to the primary.
+ */
+public class AsyncProjectService implements AutoCloseable {
+    /* Connections each fetchProjectById load uses at once. */
+    private static final int FETCH_FAN_OUT = 4;
+
+    private final ProjectService projectService;
+    private final ProjectDao projectDao;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore fetchPermits;
+
+    public AsyncProjectService() {
+        this(new ProjectService());
+    }
+
+    public AsyncProjectService(ProjectService projectService) {
+        this(projectService, DbConnection.getPool().getMaxSize());
+    }
+
+    /**
+     * @param maxFetchConnections The most connections concurrent fetchProjectById loads may hold
+     *                            at once; at least one load always runs.
+     */
+    AsyncProjectService(ProjectService projectService, int maxFetchConnections) {
+        this.projectService = projectService;
+        this.projectDao = projectService.projectDao;
+        this.fetchPermits = new Semaphore(Math.max(FETCH_FAN_OUT, maxFetchConnections));
+    }
+
+    public CompletableFuture<Project> addProject(Project project) {
+        return supply(() -> projectService.addProject(project));
+    }
+
+    public CompletableFuture<List<Project>> fetchAllProjects() {
+        return supply(projectService::fetchAllProjects);
+    }
+
+    public CompletableFuture<List<Project>> fetchProjectsByIds(Collection<Integer> projectIds) {
+        return supply(() -> projectService.fetchProjectsByIds(projectIds));
+    }
+
+    /**
+     * Returns the project graph from the project cache, or loads the project row and its three
+     * child collections in parallel, from the primary as
+     * {@link ProjectService#fetchProjectById(Integer)} does. An update to the project still queued
+     * by the write-behind buffer is written first. Completes exceptionally with
+     * {@link NoSuchElementException} if the project does not exist.
+     */
+    public CompletableFuture<Project> fetchProjectById(Integer projectId) {
+        ReplicaRouter.Session session = DbConnection.currentSession();
+        if (projectService.isWritePending(projectId)) {
+            return supply(session, () -> {
+                projectService.flushIfPending(projectId);
+                return projectId;
+            }).thenCompose(ignored -> fetchFromCacheOrLoad(session, projectId));
+        }
+        return fetchFromCacheOrLoad(session, projectId);
+    }
+
+    private CompletableFuture<Project> fetchFromCacheOrLoad(ReplicaRouter.Session session, Integer projectId) {
+        Project cached = projectService.projectCache.get(projectId);
+        if (Objects.nonNull(cached)) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return supply(session, () -> {
+            fetchPermits.acquireUninterruptibly(FETCH_FAN_OUT);
+            return projectId;
+        }).thenCompose(ignored -> load(session, projectId))
+                .whenComplete((project, e) -> fetchPermits.release(FETCH_FAN_OUT));
+    }
+
+    private CompletableFuture<Project> load(ReplicaRouter.Session session, Integer projectId) {
+        long loadStartedAt = projectService.projectCache.startLoad();
+        CompletableFuture<Optional<Project>> details = supplyFromPrimary(session, () -> projectDao.fetchProjectDetailsById(projectId));
+        CompletableFuture<List<Material>> materials = supplyFromPrimary(session, () -> projectDao.fetchMaterialsByProjectId(projectId));
+        CompletableFuture<List<Step>> steps = supplyFromPrimary(session, () -> projectDao.fetchStepsByProjectId(projectId));
+        CompletableFuture<List<Category>> categories = supplyFromPrimary(session, () -> projectDao.fetchCategoriesByProjectId(projectId));
+
+        return CompletableFuture.allOf(details, materials, steps, categories).thenApply(ignored -> {
+            Project project = details.join().orElseThrow(() -> new CompletionException(
+                    new NoSuchElementException("Project with project ID=" + projectId + " does not exist.")));
+            project.getMaterials().addAll(materials.join());
+            project.getSteps().addAll(steps.join());
+            project.getCategories().addAll(categories.join());
+            projectService.projectCache.put(project, loadStartedAt);
+            return project;
+        });
+    }
+
+    public CompletableFuture<Boolean> modifyProjectDetails(Project project) {
+        return supply(() -> projectService.modifyProjectDetails(project));
+    }
+
+    public CompletableFuture<Void> deleteProject(Integer projectId) {
+        return supply(() -> {
+            projectService.deleteProject(projectId);
+            return null;
+        });
+    }
+
+    /**
+     * Stops accepting work and waits for calls already in flight to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /* Loads data bound for the project cache, which must not come from a lagging replica. */
+    private <T> CompletableFuture<T> supplyFromPrimary(ReplicaRouter.Session session, Supplier<T> supplier) {
+        return supply(session, () -> DbConnection.readFromPrimary(supplier));
+    }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        return supply(DbConnection.currentSession(), supplier);
+    }
+
+    /*
+     * Runs the supplier on a virtual thread with the given session bound. Stages chained after
+     * the returned future do not have it bound, so they pass the caller's session along.
+     */
+    private <T> CompletableFuture<T> supply(ReplicaRouter.Session session, Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(() -> {
+            ReplicaRouter.Session previous = DbConnection.bindSession(session);
+            try {
+                return supplier.get();
+            } finally {
+                DbConnection.bindSession(previous);
+            }
+        }, executor);
+    }
+}
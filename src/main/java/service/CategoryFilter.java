@@ -0,0 +1,48 @@
+package service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A category condition for {@link CategoryIndex}: projects in every category given to
+ * {@link #allOf}, in at least one of those given to {@link #anyOf}, and in none of those given to
+ * {@link #noneOf}. Each part is optional; an empty filter matches every project.
+ *
+ * <pre>
+ * // (3 AND 7) AND (1 OR 2) AND NOT 5
+ * CategoryFilter filter = new CategoryFilter().allOf(3, 7).anyOf(1, 2).noneOf(5);
+ * </pre>
+ */
+public class CategoryFilter {
+    private final Set<Integer> allOf = new LinkedHashSet<>();
+    private final Set<Integer> anyOf = new LinkedHashSet<>();
+    private final Set<Integer> noneOf = new LinkedHashSet<>();
+
+    public CategoryFilter allOf(Integer... categoryIds) {
+        allOf.addAll(List.of(categoryIds));
+        return this;
+    }
+
+    public CategoryFilter anyOf(Integer... categoryIds) {
+        anyOf.addAll(List.of(categoryIds));
+        return this;
+    }
+
+    public CategoryFilter noneOf(Integer... categoryIds) {
+        noneOf.addAll(List.of(categoryIds));
+        return this;
+    }
+
+    Set<Integer> getAllOf() {
+        return allOf;
+    }
+
+    Set<Integer> getAnyOf() {
+        return anyOf;
+    }
+
+    Set<Integer> getNoneOf() {
+        return noneOf;
+    }
+}
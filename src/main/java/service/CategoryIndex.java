@@ -0,0 +1,141 @@
+package service;
+
+import entity.ProjectCategory;
+import entity.ProjectSummary;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory index from category ID to the set of projects in that category, held as
+ * {@link ProjectIdBitmap}s, so category membership questions are answered with bitwise operations
+ * instead of joins against project_category. A bitmap of every project ID is kept as well, so
+ * {@link CategoryFilter#noneOf} works on a query with no positive condition.
+ * <p>
+ * The index is thread-safe. Queries see either all or none of a single update.
+ */
+public class CategoryIndex {
+    private static final ProjectIdBitmap EMPTY = new ProjectIdBitmap();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, ProjectIdBitmap> projectsByCategory = new HashMap<>();
+    private ProjectIdBitmap allProjects = new ProjectIdBitmap();
+
+    /**
+     * Returns the number of projects matching the filter.
+     */
+    public int count(CategoryFilter filter) {
+        lock.readLock().lock();
+        try {
+            return evaluate(filter).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} IDs of projects matching the filter, ascending, starting after
+     * {@code afterProjectId} (null for the first page).
+     */
+    public int[] findProjectIds(CategoryFilter filter, Integer afterProjectId, int limit) {
+        lock.readLock().lock();
+        try {
+            return evaluate(filter).page(Objects.isNull(afterProjectId) ? -1 : afterProjectId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a project with no categories, e.g. one that has just been inserted.
+     */
+    public void addProject(Integer projectId) {
+        lock.writeLock().lock();
+        try {
+            allProjects.add(projectId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the project's categories with the given ones.
+     */
+    public void setCategories(Integer projectId, Collection<Integer> categoryIds) {
+        lock.writeLock().lock();
+        try {
+            removeFromCategories(projectId);
+            allProjects.add(projectId);
+            for (Integer categoryId : categoryIds) {
+                projectsByCategory.computeIfAbsent(categoryId, id -> new ProjectIdBitmap()).add(projectId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProject(Integer projectId) {
+        lock.writeLock().lock();
+        try {
+            removeFromCategories(projectId);
+            allProjects.remove(projectId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index with the given projects and project_category rows.
+     */
+    public void rebuild(Stream<ProjectSummary> projects, Stream<ProjectCategory> projectCategories) {
+        lock.writeLock().lock();
+        try {
+            projectsByCategory.clear();
+            allProjects = new ProjectIdBitmap();
+            projects.forEach(project -> allProjects.add(project.getProjectId()));
+            projectCategories.forEach(link -> projectsByCategory
+                    .computeIfAbsent(link.getCategoryId(), id -> new ProjectIdBitmap())
+                    .add(link.getProjectId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Scanning every category is linear in the number of categories, which is small next to the
+     * number of projects; a per-project reverse map would cost more memory than it saves.
+     */
+    private void removeFromCategories(Integer projectId) {
+        projectsByCategory.values().removeIf(projectIds -> {
+            projectIds.remove(projectId);
+            return projectIds.isEmpty();
+        });
+    }
+
+    private ProjectIdBitmap evaluate(CategoryFilter filter) {
+        ProjectIdBitmap result = null;
+        for (Integer categoryId : filter.getAllOf()) {
+            ProjectIdBitmap projectIds = projectsByCategory.getOrDefault(categoryId, EMPTY);
+            result = Objects.isNull(result) ? projectIds : result.and(projectIds);
+        }
+        if (!filter.getAnyOf().isEmpty()) {
+            ProjectIdBitmap any = new ProjectIdBitmap();
+            for (Integer categoryId : filter.getAnyOf()) {
+                any = any.or(projectsByCategory.getOrDefault(categoryId, EMPTY));
+            }
+            result = Objects.isNull(result) ? any : result.and(any);
+        }
+        if (Objects.isNull(result)) {
+            result = allProjects;
+        }
+        for (Integer categoryId : filter.getNoneOf()) {
+            result = result.andNot(projectsByCategory.getOrDefault(categoryId, EMPTY));
+        }
+        return result;
+    }
+}
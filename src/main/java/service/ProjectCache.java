@@ -0,0 +1,203 @@
+package service;
+
+import entity.Category;
+import entity.Material;
+import entity.Project;
+import entity.Step;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe LRU cache of project graphs keyed by project ID. Entries can optionally
+ * expire a fixed time after they were loaded. Hit, miss and eviction counts are kept so the cache
+ * can be sized from real traffic.
+ * <p>
+ * The cache stores its own copy of each project and hands out copies, so callers may modify what
+ * they get without affecting the cache or each other.
+ * <p>
+ * A read-through load can race with a write: a graph read before a write commits could be put
+ * back after the write invalidated it. To prevent that, every invalidation takes a number from
+ * an invalidation counter, and {@link #put(Project, long)} is given the counter value from
+ * {@link #startLoad()}; the put is dropped if the project was invalidated after the load began.
+ */
+public class ProjectCache {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<Integer, Entry> entries;
+
+    /*
+     * The invalidation counter, and the counter value of each project's latest invalidation. Only
+     * the most recent ones are remembered; for any other project the highest value forgotten so
+     * far stands in, which can only drop more puts, never accept a stale one. Guarded by entries.
+     */
+    private long invalidations;
+    private final LinkedHashMap<Integer, Long> invalidatedAt;
+    private long forgottenInvalidation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize   The maximum number of projects held. Zero disables caching.
+     * @param ttlMillis How long an entry stays fresh after being loaded, or zero for no expiry.
+     */
+    public ProjectCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > ProjectCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        int remembered = Math.max(1_024, maxSize * 4);
+        this.invalidatedAt = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Long> eldest) {
+                if (size() > remembered) {
+                    forgottenInvalidation = Math.max(forgottenInvalidation, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a copy of the cached project, or null if it is not cached or has expired.
+     */
+    public Project get(Integer projectId) {
+        Project project;
+        synchronized (entries) {
+            Entry entry = entries.get(projectId);
+            if (Objects.nonNull(entry) && isExpired(entry)) {
+                entries.remove(projectId);
+                evictions.increment();
+                entry = null;
+            }
+            if (Objects.isNull(entry)) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            project = entry.project;
+        }
+        return copyOf(project);
+    }
+
+    /**
+     * Call before reading a project from the database, and pass the result to
+     * {@link #put(Project, long)} with what was read.
+     */
+    public long startLoad() {
+        synchronized (entries) {
+            return invalidations;
+        }
+    }
+
+    /**
+     * Caches a copy of a project read from the database, unless the project was invalidated
+     * after {@code loadStartedAt} (from {@link #startLoad()}) or a newer version is cached.
+     */
+    public void put(Project project, long loadStartedAt) {
+        if (maxSize <= 0 || Objects.isNull(project.getProjectId())) {
+            return;
+        }
+        Project copy = copyOf(project);
+        synchronized (entries) {
+            long invalidated = invalidatedAt.getOrDefault(project.getProjectId(), forgottenInvalidation);
+            if (invalidated > loadStartedAt) {
+                return;
+            }
+            Entry current = entries.get(project.getProjectId());
+            if (Objects.nonNull(current) && isNewer(current.project, project)) {
+                return;
+            }
+            entries.put(project.getProjectId(), new Entry(copy, System.currentTimeMillis()));
+        }
+    }
+
+    public void invalidate(Integer projectId) {
+        synchronized (entries) {
+            entries.remove(projectId);
+            invalidatedAt.put(projectId, ++invalidations);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            invalidatedAt.clear();
+            forgottenInvalidation = ++invalidations;
+        }
+    }
+
+    public Stats getStats() {
+        synchronized (entries) {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), maxSize);
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return ttlMillis > 0 && System.currentTimeMillis() - entry.loadedAt > ttlMillis;
+    }
+
+    private static boolean isNewer(Project cached, Project loaded) {
+        return Objects.nonNull(cached.getVersion()) && Objects.nonNull(loaded.getVersion())
+                && cached.getVersion() > loaded.getVersion();
+    }
+
+    /* A deep copy: the project and every child row. */
+    static Project copyOf(Project project) {
+        Project copy = new Project();
+        copy.setProjectId(project.getProjectId());
+        copy.setProjectName(project.getProjectName());
+        copy.setEstimatedHours(project.getEstimatedHours());
+        copy.setActualHours(project.getActualHours());
+        copy.setDifficulty(project.getDifficulty());
+        copy.setNotes(project.getNotes());
+        copy.setVersion(project.getVersion());
+        for (Material material : project.getMaterials()) {
+            Material materialCopy = new Material();
+            materialCopy.setMaterialId(material.getMaterialId());
+            materialCopy.setProjectId(material.getProjectId());
+            materialCopy.setMaterialName(material.getMaterialName());
+            materialCopy.setNumRequired(material.getNumRequired());
+            materialCopy.setCost(material.getCost());
+            copy.getMaterials().add(materialCopy);
+        }
+        for (Step step : project.getSteps()) {
+            Step stepCopy = new Step();
+            stepCopy.setStepId(step.getStepId());
+            stepCopy.setProjectId(step.getProjectId());
+            stepCopy.setStepText(step.getStepText());
+            stepCopy.setStepOrder(step.getStepOrder());
+            copy.getSteps().add(stepCopy);
+        }
+        for (Category category : project.getCategories()) {
+            Category categoryCopy = new Category();
+            categoryCopy.setCategoryId(category.getCategoryId());
+            categoryCopy.setCategoryName(category.getCategoryName());
+            copy.getCategories().add(categoryCopy);
+        }
+        return copy;
+    }
+
+    private record Entry(Project project, long loadedAt) {
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size, int maxSize) {
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+}
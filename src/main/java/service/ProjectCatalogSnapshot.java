@@ -0,0 +1,407 @@
+package service;
+
+import entity.FixedPoint;
+import entity.Project;
+import entity.ProjectSummary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+
+/**
+ * A read-only, memory-mapped snapshot of the project catalog: the ID, name, hours and difficulty
+ * of every project. Opening one maps the file and reads a 24-byte header; nothing else is parsed
+ * up front, and records are read straight out of the mapping (and so out of the OS page cache)
+ * when asked for. A list view can therefore be served at startup without a database query.
+ * <p>
+ * File layout, all ints big-endian:
+ * <pre>
+ * header   magic, version, record count, name heap offset, created-at millis (long)
+ * records  per project, ascending by ID: project ID, estimated hours, actual hours, difficulty,
+ *          name offset, name length (hours in hundredths, nulls as {@link FixedPoint#NULL})
+ * names    UTF-8 project names, addressed by the offsets in the records
+ * </pre>
+ * Snapshots are never modified in place. {@link #writeMerged} writes a new file from this one
+ * plus a set of changes, copying unchanged records byte for byte. That costs a pass over every
+ * record, so callers should batch changes rather than merge after each write.
+ * <p>
+ * A snapshot that is being served is kept as a series of generation files next to a small
+ * pointer file, which holds the number of the current generation: {@code catalog.snap} names
+ * {@code catalog.snap.1}, {@code catalog.snap.2} and so on. A new generation is written under its
+ * own name and then published by replacing the pointer file, so a mapped file is never replaced
+ * or written to (which Windows refuses). Older generations are deleted once published past; one
+ * that is still mapped and cannot be deleted yet is retried on the next publish.
+ */
+public final class ProjectCatalogSnapshot {
+    private static final int MAGIC = 0x50434154;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int RECORD_SIZE = 24;
+
+    private static final int ID = 0;
+    private static final int ESTIMATED_HOURS = 4;
+    private static final int ACTUAL_HOURS = 8;
+    private static final int DIFFICULTY = 12;
+    private static final int NAME_OFFSET = 16;
+    private static final int NAME_LENGTH = 20;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int nameHeapOffset;
+    private final long createdAtMillis;
+
+    private ProjectCatalogSnapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a project catalog snapshot.");
+        }
+        this.count = buffer.getInt(8);
+        this.nameHeapOffset = buffer.getInt(12);
+        this.createdAtMillis = buffer.getLong(16);
+        if (nameHeapOffset != HEADER_SIZE + (long) count * RECORD_SIZE || nameHeapOffset > buffer.capacity()) {
+            throw new IOException("Project catalog snapshot is truncated.");
+        }
+    }
+
+    /**
+     * Maps a snapshot file. The mapping stays valid after a newer generation is published, so
+     * readers of this instance are unaffected by a refresh.
+     */
+    public static ProjectCatalogSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ProjectCatalogSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Maps the generation named by the pointer file, or returns null if there is no pointer file
+     * yet. Throws {@link IOException} if the pointer file or the generation it names is damaged.
+     */
+    public static ProjectCatalogSnapshot openCurrent(Path pointer) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            long generation = currentGeneration(pointer);
+            if (generation == 0) {
+                return null;
+            }
+            try {
+                return open(generationFile(pointer, generation));
+            } catch (NoSuchFileException e) {
+                /* Another process published a newer generation and deleted this one. */
+                if (attempt == 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the file to write the next generation to, after the one the pointer file names.
+     */
+    public static Path nextGeneration(Path pointer) throws IOException {
+        return generationFile(pointer, currentGeneration(pointer) + 1);
+    }
+
+    /**
+     * Makes {@code generation}, a file returned by {@link #nextGeneration}, the current
+     * generation by replacing the pointer file, then deletes the generations before it.
+     */
+    public static void publish(Path pointer, Path generation) throws IOException {
+        String name = generation.getFileName().toString();
+        long number = generationOf(pointer, name);
+        if (number <= 0) {
+            throw new IllegalArgumentException(name + " is not a generation of " + pointer.getFileName());
+        }
+        Path temp = pointer.resolveSibling(pointer.getFileName() + ".tmp");
+        Files.writeString(temp, Long.toString(number));
+        Files.move(temp, pointer, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Path dir = Objects.requireNonNullElse(pointer.toAbsolutePath().getParent(), Path.of("."));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, pointer.getFileName() + ".*")) {
+            for (Path file : files) {
+                long older = generationOf(pointer, file.getFileName().toString());
+                if (older > 0 && older < number) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        /* Still mapped on a platform that forbids deleting it; retried next time. */
+                    }
+                }
+            }
+        }
+    }
+
+    private static long currentGeneration(Path pointer) throws IOException {
+        if (!Files.exists(pointer)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(pointer).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Not a project catalog snapshot pointer: " + pointer, e);
+        }
+    }
+
+    private static Path generationFile(Path pointer, long generation) {
+        return pointer.resolveSibling(pointer.getFileName() + "." + generation);
+    }
+
+    /* Returns the generation number in a file name, or 0 if it is not a generation of the pointer. */
+    private static long generationOf(Path pointer, String name) {
+        String prefix = pointer.getFileName() + ".";
+        if (!name.startsWith(prefix)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given projects, which must be in ascending project ID order, to a
+     * file that is not mapped, such as the one {@link #nextGeneration} returns.
+     */
+    public static void write(Path file, Iterator<Project> projects) throws IOException {
+        Writer writer = new Writer();
+        while (projects.hasNext()) {
+            writer.add(projects.next());
+        }
+        writer.writeTo(file);
+    }
+
+    /**
+     * Writes a new snapshot to {@code file} holding this snapshot's projects with {@code changes}
+     * applied. A change maps a project ID to the project's new state, or to null if the project
+     * was deleted. As with {@link #write}, {@code file} must not be mapped.
+     */
+    public void writeMerged(Path file, SortedMap<Integer, Project> changes) throws IOException {
+        Writer writer = new Writer();
+        merge(changes, writer);
+        writer.writeTo(file);
+    }
+
+    /**
+     * Lists every project by ID and name, in ID order, with {@code changes} applied as in
+     * {@link #writeMerged}, without writing a new file.
+     */
+    public List<ProjectSummary> summaries(SortedMap<Integer, Project> changes) {
+        List<ProjectSummary> summaries = new ArrayList<>(count + changes.size());
+        try {
+            merge(changes, new MergeSink() {
+                @Override
+                public void add(Project project) {
+                    summaries.add(summary(project.getProjectId(), project.getProjectName()));
+                }
+
+                @Override
+                public void copy(ProjectCatalogSnapshot snapshot, int index) {
+                    summaries.add(summary(snapshot.projectId(index), snapshot.projectName(index)));
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return summaries;
+    }
+
+    /* Walks the records and the changes together in project ID order. */
+    private void merge(SortedMap<Integer, Project> changes, MergeSink sink) throws IOException {
+        Iterator<Map.Entry<Integer, Project>> changed = changes.entrySet().iterator();
+        Map.Entry<Integer, Project> change = changed.hasNext() ? changed.next() : null;
+        for (int index = 0; index < count; index++) {
+            int projectId = projectId(index);
+            while (Objects.nonNull(change) && change.getKey() < projectId) {
+                addIfPresent(sink, change.getValue());
+                change = changed.hasNext() ? changed.next() : null;
+            }
+            if (Objects.nonNull(change) && change.getKey() == projectId) {
+                addIfPresent(sink, change.getValue());
+                change = changed.hasNext() ? changed.next() : null;
+            } else {
+                sink.copy(this, index);
+            }
+        }
+        while (Objects.nonNull(change)) {
+            addIfPresent(sink, change.getValue());
+            change = changed.hasNext() ? changed.next() : null;
+        }
+    }
+
+    private static void addIfPresent(MergeSink sink, Project project) throws IOException {
+        if (Objects.nonNull(project)) {
+            sink.add(project);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * Returns the highest project ID in the snapshot, or 0 if it is empty.
+     */
+    public int maxProjectId() {
+        return count == 0 ? 0 : projectId(count - 1);
+    }
+
+    public int projectId(int index) {
+        return buffer.getInt(recordOffset(index) + ID);
+    }
+
+    public String projectName(int index) {
+        int offset = buffer.getInt(recordOffset(index) + NAME_OFFSET);
+        byte[] name = new byte[buffer.getInt(recordOffset(index) + NAME_LENGTH)];
+        buffer.get(nameHeapOffset + offset, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the estimated hours in hundredths, or {@link FixedPoint#NULL}.
+     */
+    public int estimatedHours(int index) {
+        return buffer.getInt(recordOffset(index) + ESTIMATED_HOURS);
+    }
+
+    /**
+     * Returns the actual hours in hundredths, or {@link FixedPoint#NULL}.
+     */
+    public int actualHours(int index) {
+        return buffer.getInt(recordOffset(index) + ACTUAL_HOURS);
+    }
+
+    public int difficulty(int index) {
+        return buffer.getInt(recordOffset(index) + DIFFICULTY);
+    }
+
+    /**
+     * Returns the position of the project in the snapshot, or a negative number if it is not in
+     * it. A binary search over the mapped records.
+     */
+    public int indexOf(int projectId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = projectId(mid);
+            if (midId < projectId) {
+                low = mid + 1;
+            } else if (midId > projectId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Lists every project by ID and name, in ID order.
+     */
+    public List<ProjectSummary> summaries() {
+        List<ProjectSummary> summaries = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            summaries.add(summary(projectId(index), projectName(index)));
+        }
+        return summaries;
+    }
+
+    private static ProjectSummary summary(Integer projectId, String projectName) {
+        ProjectSummary summary = new ProjectSummary();
+        summary.setProjectId(projectId);
+        summary.setProjectName(projectName);
+        return summary;
+    }
+
+    private static int recordOffset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    /* Receives the merged records: changed projects as added, unchanged ones as copied. */
+    private interface MergeSink {
+        void add(Project project) throws IOException;
+
+        void copy(ProjectCatalogSnapshot snapshot, int index) throws IOException;
+    }
+
+    /* Accumulates records and names in memory, then writes the file in one pass. */
+    private static final class Writer implements MergeSink {
+        private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        private final DataOutputStream records = new DataOutputStream(recordBytes);
+        private final ByteArrayOutputStream names = new ByteArrayOutputStream();
+        private int count;
+        private int lastProjectId = -1;
+
+        @Override
+        public void add(Project project) throws IOException {
+            byte[] name = Objects.requireNonNullElse(project.getProjectName(), "").getBytes(StandardCharsets.UTF_8);
+            writeRecord(project.getProjectId(), FixedPoint.fromBigDecimal(project.getEstimatedHours()),
+                    FixedPoint.fromBigDecimal(project.getActualHours()),
+                    Objects.isNull(project.getDifficulty()) ? FixedPoint.NULL : project.getDifficulty(),
+                    name.length);
+            names.write(name);
+        }
+
+        @Override
+        public void copy(ProjectCatalogSnapshot snapshot, int index) throws IOException {
+            int record = recordOffset(index);
+            int length = snapshot.buffer.getInt(record + NAME_LENGTH);
+            writeRecord(snapshot.projectId(index), snapshot.estimatedHours(index), snapshot.actualHours(index),
+                    snapshot.difficulty(index), length);
+            byte[] name = new byte[length];
+            snapshot.buffer.get(snapshot.nameHeapOffset + snapshot.buffer.getInt(record + NAME_OFFSET), name);
+            names.write(name);
+        }
+
+        private void writeRecord(int projectId, int estimatedHours, int actualHours, int difficulty, int nameLength)
+                throws IOException {
+            if (projectId <= lastProjectId) {
+                throw new IllegalArgumentException("Projects must be in ascending ID order: " + projectId
+                        + " after " + lastProjectId);
+            }
+            lastProjectId = projectId;
+            records.writeInt(projectId);
+            records.writeInt(estimatedHours);
+            records.writeInt(actualHours);
+            records.writeInt(difficulty);
+            records.writeInt(names.size());
+            records.writeInt(nameLength);
+            count++;
+        }
+
+        /* Writes the file in place; it must not be mapped. Serve it by publishing it. */
+        void writeTo(Path file) throws IOException {
+            try (OutputStream out = Files.newOutputStream(file);
+                 DataOutputStream header = new DataOutputStream(out)) {
+                header.writeInt(MAGIC);
+                header.writeInt(VERSION);
+                header.writeInt(count);
+                header.writeInt(HEADER_SIZE + recordBytes.size());
+                header.writeLong(System.currentTimeMillis());
+                recordBytes.writeTo(header);
+                names.writeTo(header);
+            }
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package service;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative project IDs, laid out like a Roaring bitmap: IDs are grouped
+ * by their high 16 bits, and each group of up to 65536 IDs is stored either as a sorted array of
+ * the low 16 bits (while it holds at most {@value #ARRAY_MAX} IDs) or as a 1024-word bitmap.
+ * Sparse sets therefore cost about two bytes per ID and dense sets one bit per ID, and
+ * {@link #and}, {@link #or} and {@link #andNot} work a whole group at a time with word-wide
+ * bitwise operations.
+ * <p>
+ * Instances are not thread-safe; {@link CategoryIndex} guards the ones it holds.
+ */
+public final class ProjectIdBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    /* High 16 bits of each group, ascending, with each group's container at the same index. */
+    private int[] keys = new int[0];
+    private Container[] containers = new Container[0];
+
+    public static ProjectIdBitmap of(int... projectIds) {
+        ProjectIdBitmap bitmap = new ProjectIdBitmap();
+        for (int projectId : projectIds) {
+            bitmap.add(projectId);
+        }
+        return bitmap;
+    }
+
+    public void add(int projectId) {
+        int at = Arrays.binarySearch(keys, projectId >>> 16);
+        if (at < 0) {
+            at = -at - 1;
+            insertGroup(at, projectId >>> 16, new ArrayContainer(new char[0]));
+        }
+        containers[at] = containers[at].add((char) projectId);
+    }
+
+    public void remove(int projectId) {
+        int at = Arrays.binarySearch(keys, projectId >>> 16);
+        if (at >= 0) {
+            containers[at] = containers[at].remove((char) projectId);
+            if (containers[at].cardinality() == 0) {
+                removeGroup(at);
+            }
+        }
+    }
+
+    public boolean contains(int projectId) {
+        int at = Arrays.binarySearch(keys, projectId >>> 16);
+        return at >= 0 && containers[at].contains((char) projectId);
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (Container container : containers) {
+            cardinality += container.cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    /**
+     * Returns the IDs in both this and {@code other}.
+     */
+    public ProjectIdBitmap and(ProjectIdBitmap other) {
+        ProjectIdBitmap result = new ProjectIdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendGroup(keys[i], containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the IDs in this, {@code other} or both.
+     */
+    public ProjectIdBitmap or(ProjectIdBitmap other) {
+        ProjectIdBitmap result = new ProjectIdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                result.appendGroup(keys[i], containers[i].copy());
+                i++;
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                result.appendGroup(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendGroup(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the IDs in this but not in {@code other}.
+     */
+    public ProjectIdBitmap andNot(ProjectIdBitmap other) {
+        ProjectIdBitmap result = new ProjectIdBitmap();
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.keys.length && other.keys[j] == keys[i]) {
+                result.appendGroup(keys[i], containers[i].andNot(other.containers[j]));
+            } else {
+                result.appendGroup(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    public ProjectIdBitmap copy() {
+        ProjectIdBitmap copy = new ProjectIdBitmap();
+        copy.keys = keys.clone();
+        copy.containers = new Container[containers.length];
+        for (int i = 0; i < containers.length; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        return copy;
+    }
+
+    /**
+     * Calls {@code action} with every ID in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} IDs greater than {@code afterProjectId}, ascending, for keyset
+     * paging through a result.
+     */
+    public int[] page(int afterProjectId, int limit) {
+        if (afterProjectId == Integer.MAX_VALUE) {
+            return new int[0];
+        }
+        int[] page = new int[Math.max(0, Math.min(limit, cardinality()))];
+        int count = 0;
+        int from = Math.max(0, afterProjectId + 1);
+        int at = Arrays.binarySearch(keys, from >>> 16);
+        int group = at >= 0 ? at : -at - 1;
+        for (; group < keys.length && count < page.length; group++) {
+            int base = keys[group] << 16;
+            int low = keys[group] == from >>> 16 ? from & 0xFFFF : 0;
+            count = containers[group].copyFrom(low, base, page, count);
+        }
+        return count == page.length ? page : Arrays.copyOf(page, count);
+    }
+
+    private void insertGroup(int at, int key, Container container) {
+        keys = Arrays.copyOf(keys, keys.length + 1);
+        containers = Arrays.copyOf(containers, containers.length + 1);
+        System.arraycopy(keys, at, keys, at + 1, keys.length - at - 1);
+        System.arraycopy(containers, at, containers, at + 1, containers.length - at - 1);
+        keys[at] = key;
+        containers[at] = container;
+    }
+
+    private void removeGroup(int at) {
+        System.arraycopy(keys, at + 1, keys, at, keys.length - at - 1);
+        System.arraycopy(containers, at + 1, containers, at, containers.length - at - 1);
+        keys = Arrays.copyOf(keys, keys.length - 1);
+        containers = Arrays.copyOf(containers, containers.length - 1);
+    }
+
+    /* Appends a group with a key above every existing one, dropping it if empty. */
+    private void appendGroup(int key, Container container) {
+        if (container.cardinality() > 0) {
+            insertGroup(keys.length, key, container);
+        }
+    }
+
+    private abstract static class Container {
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container copy();
+
+        abstract long[] toWords();
+
+        abstract void forEach(int base, IntConsumer action);
+
+        /* Copies values >= low into page starting at count; returns the new count. */
+        abstract int copyFrom(int low, int base, int[] page, int count);
+
+        Container and(Container other) {
+            if (this instanceof ArrayContainer array && other instanceof ArrayContainer otherArray) {
+                return array.intersect(otherArray);
+            }
+            long[] words = toWords();
+            long[] otherWords = other.toWords();
+            for (int i = 0; i < WORDS; i++) {
+                words[i] &= otherWords[i];
+            }
+            return fromWords(words);
+        }
+
+        Container or(Container other) {
+            long[] words = toWords();
+            long[] otherWords = other.toWords();
+            for (int i = 0; i < WORDS; i++) {
+                words[i] |= otherWords[i];
+            }
+            return fromWords(words);
+        }
+
+        Container andNot(Container other) {
+            long[] words = toWords();
+            long[] otherWords = other.toWords();
+            for (int i = 0; i < WORDS; i++) {
+                words[i] &= ~otherWords[i];
+            }
+            return fromWords(words);
+        }
+
+        static Container fromWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality > ARRAY_MAX) {
+                return new BitmapContainer(words, cardinality);
+            }
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values);
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+
+        ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        @Override
+        Container add(char value) {
+            int at = Arrays.binarySearch(values, value);
+            if (at >= 0) {
+                return this;
+            }
+            if (values.length == ARRAY_MAX) {
+                return new BitmapContainer(toWords(), values.length).add(value);
+            }
+            at = -at - 1;
+            char[] grown = new char[values.length + 1];
+            System.arraycopy(values, 0, grown, 0, at);
+            grown[at] = value;
+            System.arraycopy(values, at, grown, at + 1, values.length - at);
+            values = grown;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int at = Arrays.binarySearch(values, value);
+            if (at >= 0) {
+                char[] shrunk = new char[values.length - 1];
+                System.arraycopy(values, 0, shrunk, 0, at);
+                System.arraycopy(values, at + 1, shrunk, at, values.length - at - 1);
+                values = shrunk;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return values.length;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(values.clone());
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[WORDS];
+            for (char value : values) {
+                words[value >>> 6] |= 1L << value;
+            }
+            return words;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (char value : values) {
+                action.accept(base | value);
+            }
+        }
+
+        @Override
+        int copyFrom(int low, int base, int[] page, int count) {
+            int at = Arrays.binarySearch(values, (char) low);
+            for (int i = at >= 0 ? at : -at - 1; i < values.length && count < page.length; i++) {
+                page[count++] = base | values[i];
+            }
+            return count;
+        }
+
+        ArrayContainer intersect(ArrayContainer other) {
+            char[] result = new char[Math.min(values.length, other.values.length)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < values.length && j < other.values.length) {
+                if (values[i] < other.values[j]) {
+                    i++;
+                } else if (values[i] > other.values[j]) {
+                    j++;
+                } else {
+                    result[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return new ArrayContainer(Arrays.copyOf(result, count));
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+                if (cardinality <= ARRAY_MAX) {
+                    return fromWords(words);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        long[] toWords() {
+            return words.clone();
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(base | (i * 64 + Long.numberOfTrailingZeros(word)));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        int copyFrom(int low, int base, int[] page, int count) {
+            for (int i = low >>> 6; i < WORDS && count < page.length; i++) {
+                long word = i == low >>> 6 ? words[i] & (-1L << low) : words[i];
+                while (word != 0 && count < page.length) {
+                    page[count++] = base | (i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return count;
+        }
+    }
+}
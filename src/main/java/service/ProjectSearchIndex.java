@@ -0,0 +1,444 @@
+package service;
+
+import entity.Project;
+import entity.Step;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory inverted index over project names, notes and step text, so searches never scan
+ * the TEXT columns in MySQL.
+ * <p>
+ * Text is split into lower-case words; each word maps to a posting list of the projects
+ * containing it, sorted by project ID, with a per-project term frequency. Words in the project
+ * name count {@value #NAME_WEIGHT} times. A search returns the projects containing every query
+ * word, ranked by BM25, so the cost of a query depends on the length of its rarest word's posting
+ * list rather than on the number of projects.
+ * <p>
+ * The index is thread-safe. Updates are idempotent: indexing a project again replaces its
+ * name and notes, and removing a project that is not indexed does nothing.
+ */
+public class ProjectSearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int FILE_MAGIC = 0x50534958;
+    private static final int FILE_VERSION = 2;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "of", "on", "or", "that", "the", "then", "this", "to", "with");
+
+    public record SearchHit(Integer projectId, double score) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    /**
+     * Returns up to {@code limit} projects containing every word of the query, best match first.
+     */
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (Objects.isNull(list)) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            double[] idf = new double[lists.size()];
+            for (int t = 0; t < lists.size(); t++) {
+                int df = lists.get(t).size;
+                idf[t] = Math.log(1 + (documents.size() - df + 0.5) / (df + 0.5));
+            }
+            double averageLength = documents.isEmpty() ? 1 : Math.max(1.0, (double) totalLength / documents.size());
+
+            PriorityQueue<SearchHit> best = new PriorityQueue<>(Comparator.comparingDouble(SearchHit::score));
+            Postings rarest = lists.get(0);
+            int[] cursors = new int[lists.size()];
+            candidates:
+            for (int i = 0; i < rarest.size; i++) {
+                int projectId = rarest.ids[i];
+                double lengthNorm = K1 * (1 - B + B * documents.get(projectId).length / averageLength);
+                double score = 0;
+                for (int t = 0; t < lists.size(); t++) {
+                    Postings list = lists.get(t);
+                    int at = t == 0 ? i : list.indexOf(projectId, cursors[t]);
+                    if (at < 0) {
+                        /* The lists are sorted, so later candidates can resume from here. */
+                        cursors[t] = -at - 1;
+                        continue candidates;
+                    }
+                    cursors[t] = at;
+                    int tf = list.freqs[at];
+                    score += idf[t] * tf * (K1 + 1) / (tf + lengthNorm);
+                }
+                if (best.size() < limit) {
+                    best.add(new SearchHit(projectId, score));
+                } else if (score > best.peek().score()) {
+                    best.poll();
+                    best.add(new SearchHit(projectId, score));
+                }
+            }
+            List<SearchHit> hits = new ArrayList<>(best);
+            hits.sort(Comparator.comparingDouble(SearchHit::score).reversed()
+                    .thenComparing(SearchHit::projectId));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes (or re-indexes) the project's name, notes and steps, replacing whatever was indexed
+     * for it before.
+     */
+    public void indexProject(Project project) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(project.getProjectId());
+            Document document = new Document();
+            documents.put(project.getProjectId(), document);
+            setDetails(project, document);
+            addSteps(project.getProjectId(), document, project.getSteps());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes the project's name and notes, keeping the steps already indexed for it.
+     */
+    public void updateProjectDetails(Project project) {
+        lock.writeLock().lock();
+        try {
+            Document document = documents.computeIfAbsent(project.getProjectId(), id -> new Document());
+            adjust(project.getProjectId(), document, document.details, -1);
+            setDetails(project, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the text of newly written steps to their project's entry.
+     */
+    public void indexSteps(Integer projectId, Collection<Step> steps) {
+        lock.writeLock().lock();
+        try {
+            Document document = documents.get(projectId);
+            if (Objects.nonNull(document)) {
+                addSteps(projectId, document, steps);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the text of deleted steps from their project's entry.
+     */
+    public void unindexSteps(Integer projectId, Collection<Step> steps) {
+        lock.writeLock().lock();
+        try {
+            Document document = documents.get(projectId);
+            if (Objects.nonNull(document)) {
+                changeSteps(projectId, document, steps, -1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProject(Integer projectId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(projectId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index with the given projects and steps. Steps must be grouped by
+     * project; steps of projects not in {@code projects} are ignored. Updates made by other
+     * threads wait until the rebuild is done and are then applied on top of it.
+     */
+    public void rebuild(Stream<Project> projects, Stream<Step> steps) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            projects.forEach(project -> {
+                Document document = new Document();
+                documents.put(project.getProjectId(), document);
+                setDetails(project, document);
+            });
+            steps.forEach(step -> {
+                Document document = documents.get(step.getProjectId());
+                if (Objects.nonNull(document)) {
+                    addSteps(step.getProjectId(), document, List.of(step));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the index to {@code file}, replacing it atomically, so a restart can
+     * {@link #load(Path, String)} it instead of reading every project and step from the database.
+     *
+     * @param stamp Identifies the state of the database the index reflects, e.g. a high-water mark.
+     *              It is stored in the file header.
+     */
+    public void save(Path file, String stamp) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeUTF(stamp);
+            out.writeInt(documents.size());
+            for (Map.Entry<Integer, Document> entry : documents.entrySet()) {
+                out.writeInt(entry.getKey());
+                writeTerms(out, entry.getValue().details);
+                writeTerms(out, entry.getValue().steps);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Replaces the index with the contents of a file written by {@link #save(Path, String)}. The
+     * file reflects the database at the time it was saved, so it is only loaded if it was saved
+     * with the given stamp; otherwise the index is left unchanged and an {@link IOException} is
+     * thrown.
+     */
+    public void load(Path file, String stamp) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException(file + " is not a project search index.");
+            }
+            String savedStamp = in.readUTF();
+            if (!savedStamp.equals(stamp)) {
+                throw new IOException(file + " was saved at " + savedStamp + ", not " + stamp + ".");
+            }
+            lock.writeLock().lock();
+            try {
+                clear();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    Integer projectId = in.readInt();
+                    Document document = new Document();
+                    documents.put(projectId, document);
+                    Map<String, Integer> details = readTerms(in);
+                    document.details.putAll(details);
+                    adjust(projectId, document, details, 1);
+                    Map<String, Integer> steps = readTerms(in);
+                    document.steps.putAll(steps);
+                    adjust(projectId, document, steps, 1);
+                }
+            } catch (IOException | RuntimeException e) {
+                clear();
+                throw e;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Splits text into lower-case words of letters and digits, dropping single letters and
+     * common English stop words.
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (Objects.isNull(text)) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if ((term.length() > 1 || Character.isDigit(term.charAt(0))) && !STOP_WORDS.contains(term)) {
+                    terms.add(term);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private void setDetails(Project project, Document document) {
+        document.details.clear();
+        for (String term : tokenize(project.getProjectName())) {
+            document.details.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(project.getNotes())) {
+            document.details.merge(term, 1, Integer::sum);
+        }
+        adjust(project.getProjectId(), document, document.details, 1);
+    }
+
+    private void addSteps(Integer projectId, Document document, Collection<Step> steps) {
+        changeSteps(projectId, document, steps, 1);
+    }
+
+    private void changeSteps(Integer projectId, Document document, Collection<Step> steps, int sign) {
+        Map<String, Integer> changed = new HashMap<>();
+        for (Step step : steps) {
+            for (String term : tokenize(step.getStepText())) {
+                changed.merge(term, 1, Integer::sum);
+            }
+        }
+        /* Removing steps takes away at most the step occurrences indexed, never name or notes ones. */
+        Map<String, Integer> applied = new HashMap<>();
+        changed.forEach((term, freq) -> document.steps.compute(term, (key, indexed) -> {
+            int current = Objects.isNull(indexed) ? 0 : indexed;
+            int updated = Math.max(0, current + sign * freq);
+            if (updated != current) {
+                applied.put(term, Math.abs(updated - current));
+            }
+            return updated > 0 ? updated : null;
+        }));
+        adjust(projectId, document, applied, sign);
+    }
+
+    private void removeDocument(Integer projectId) {
+        Document document = documents.remove(projectId);
+        if (Objects.nonNull(document)) {
+            adjust(projectId, document, document.details, -1);
+            adjust(projectId, document, document.steps, -1);
+        }
+    }
+
+    /* Adds (sign 1) or subtracts (sign -1) the term frequencies to the postings and lengths. */
+    private void adjust(int projectId, Document document, Map<String, Integer> terms, int sign) {
+        for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+            int delta = sign * entry.getValue();
+            Postings list = postings.computeIfAbsent(entry.getKey(), term -> new Postings());
+            list.adjust(projectId, delta);
+            if (list.size == 0) {
+                postings.remove(entry.getKey());
+            }
+            document.length += delta;
+            totalLength += delta;
+        }
+    }
+
+    private void clear() {
+        postings.clear();
+        documents.clear();
+        totalLength = 0;
+    }
+
+    private static void writeTerms(DataOutputStream out, Map<String, Integer> terms) throws IOException {
+        out.writeInt(terms.size());
+        for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    private static Map<String, Integer> readTerms(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, Integer> terms = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            terms.put(in.readUTF(), in.readInt());
+        }
+        return terms;
+    }
+
+    /* The indexed terms of one project; name and notes are kept apart from steps so each can be replaced. */
+    private static final class Document {
+        private final Map<String, Integer> details = new HashMap<>();
+        private final Map<String, Integer> steps = new HashMap<>();
+        private int length;
+    }
+
+    /* Project IDs containing one term, in ascending order, with parallel term frequencies. */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        /* Returns the position of projectId at or after from, or -(insertion point) - 1. */
+        int indexOf(int projectId, int from) {
+            return Arrays.binarySearch(ids, from, size, projectId);
+        }
+
+        void adjust(int projectId, int delta) {
+            int at = indexOf(projectId, 0);
+            if (at >= 0) {
+                freqs[at] += delta;
+                if (freqs[at] <= 0) {
+                    System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                    System.arraycopy(freqs, at + 1, freqs, at, size - at - 1);
+                    size--;
+                }
+                return;
+            }
+            if (delta <= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            System.arraycopy(freqs, at, freqs, at + 1, size - at);
+            ids[at] = projectId;
+            freqs[at] = delta;
+            size++;
+        }
+    }
+}
@@ -1,41 +1,652 @@
 package service;
 
+import entity.Material;
 import entity.Project;
+import entity.ProjectCategory;
+import entity.ProjectRollup;
+import entity.ProjectSummary;
+import entity.ProjectView;
+import entity.Step;
+import projects.dao.DbConnection;
 import projects.dao.ProjectDao;
+import projects.dao.ProjectQuery;
+import projects.dao.ProjectRollupDao;
+import projects.dao.StepDao;
 import projects.exceptions.DbException;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ProjectService {
+    private static final int CATALOG_REFRESH_PAGE_SIZE = 1_000;
+
     ProjectDao projectDao = new ProjectDao();
+    ProjectRollupDao projectRollupDao = new ProjectRollupDao();
+    ProjectCache projectCache = new ProjectCache(
+            Integer.getInteger("projects.cache.maxSize", 1_000),
+            Long.getLong("projects.cache.ttlMillis", 0L));
+    StepDao stepDao = new StepDao(projectCache::invalidate);
+
+    /*
+     * Built on the first search, from -Dprojects.search.indexFile when that file exists and was
+     * saved at the database's current projects stamp, and from the database otherwise. Until then
+     * writes do not need to update it.
+     */
+    ProjectSearchIndex searchIndex = new ProjectSearchIndex();
+    private final String searchIndexFile = System.getProperty("projects.search.indexFile");
+    private boolean searchIndexReady;
+
+    /*
+     * With -Dprojects.catalog.snapshotFile, project lists are served from a memory-mapped
+     * snapshot; that file names its current generation (see ProjectCatalogSnapshot). Local writes
+     * are queued (null for a delete) and merged into each listing in memory. Writing a new
+     * generation copies every record, so listings only do it once
+     * -Dprojects.catalog.rewriteAfterChanges writes have queued.
+     */
+    private final String catalogSnapshotFile = System.getProperty("projects.catalog.snapshotFile");
+    private final int catalogRewriteAfterChanges = Integer.getInteger("projects.catalog.rewriteAfterChanges", 1_000);
+    private final SortedMap<Integer, Project> pendingCatalogChanges = new TreeMap<>();
+    private ProjectCatalogSnapshot catalogSnapshot;
+
+    /*
+     * With -Dprojects.writeBehind.intervalMillis > 0, modifyProjectDetails queues updates and
+     * writes them in batches; see ProjectWriteBehind. Reads flush first: a read of one project
+     * when an update to it is queued, and listings, searches and rollup queries whenever
+     * anything is queued. Queued updates are flushed at shutdown.
+     */
+    private final ProjectWriteBehind writeBehind = createWriteBehind();
+
+    /* Built from the database on the first category query. */
+    CategoryIndex categoryIndex = new CategoryIndex();
+    private boolean categoryIndexReady;
 
     public Project addProject(Project project) {
-        return projectDao.insertProject(project);
+        Project dbProject = projectDao.insertProject(project);
+        projectCache.invalidate(dbProject.getProjectId());
+        updateSearchIndex(index -> index.indexProject(dbProject));
+        updateCategoryIndex(index -> index.addProject(dbProject.getProjectId()));
+        recordCatalogChange(dbProject.getProjectId(), dbProject);
+        return dbProject;
+    }
+
+    /**
+     * Inserts all the given projects in one batched transaction and sets their IDs.
+     */
+    public List<Project> addProjects(List<Project> projects) {
+        List<Project> dbProjects = projectDao.insertProjects(projects);
+        dbProjects.forEach(project -> projectCache.invalidate(project.getProjectId()));
+        updateSearchIndex(index -> dbProjects.forEach(index::indexProject));
+        updateCategoryIndex(index -> dbProjects.forEach(project -> index.addProject(project.getProjectId())));
+        dbProjects.forEach(project -> recordCatalogChange(project.getProjectId(), project));
+        return dbProjects;
     }
 
     public List<Project> fetchAllProjects() {
-        return projectDao.fetchAllProjects()
-                .stream()
-                .sorted((project1, project2) -> project1.getProjectId() - project2.getProjectId())
-                .collect(Collectors.toList());
+        flushBeforeListing();
+        return projectDao.fetchAllProjects();
+    }
+
+    /**
+     * Lists all projects by ID and name only, for list views that do not need the full rows.
+     */
+    public List<ProjectSummary> fetchProjectSummaries() {
+        flushBeforeListing();
+        if (Objects.nonNull(catalogSnapshotFile)) {
+            synchronized (pendingCatalogChanges) {
+                if (pendingCatalogChanges.size() < catalogRewriteAfterChanges) {
+                    return mappedCatalogSnapshot().summaries(pendingCatalogChanges);
+                }
+                return currentCatalogSnapshot().summaries();
+            }
+        }
+        return projectDao.fetchProjectSummaries();
+    }
+
+    public List<ProjectSummary> fetchProjectSummariesAfter(Integer afterProjectId, int limit) {
+        flushBeforeListing();
+        return projectDao.fetchProjectSummariesAfter(afterProjectId, limit);
+    }
+
+    /**
+     * Finds projects by difficulty, hours, name prefix and category, sorted and paged in the
+     * database. The projects are returned without their child rows.
+     */
+    public List<Project> findProjects(ProjectQuery query) {
+        flushBeforeListing();
+        return projectDao.findProjects(query);
+    }
+
+    /**
+     * Streams all projects in project ID order with constant memory. The caller must close the
+     * stream to release its database connection.
+     */
+    public Stream<Project> streamAllProjects() {
+        flushBeforeListing();
+        return projectDao.streamAllProjects();
     }
 
+    /**
+     * Returns up to {@code limit} projects with IDs after {@code afterProjectId}, in ID order.
+     */
+    public List<Project> fetchProjectsAfter(Integer afterProjectId, int limit) {
+        flushBeforeListing();
+        return projectDao.fetchProjectsAfter(afterProjectId, limit);
+    }
+
+    /**
+     * Returns the project graph, served from the project cache when possible. The caller gets its
+     * own copy and may modify it. Misses are loaded from the primary: a graph read from a lagging
+     * replica could predate another session's write, and with no TTL it would stay cached.
+     */
     public Project fetchProjectById(Integer projectId) {
-        return projectDao.fetchProjectById(projectId).orElseThrow(() -> new NoSuchElementException("Project with project ID=" + projectId + " does not exist."));
+        flushIfPending(projectId);
+        Project project = projectCache.get(projectId);
+        if (Objects.isNull(project)) {
+            long loadStartedAt = projectCache.startLoad();
+            project = DbConnection.readFromPrimary(() -> projectDao.fetchProjectById(projectId)).orElseThrow(() -> new NoSuchElementException("Project with project ID=" + projectId + " does not exist."));
+            projectCache.put(project, loadStartedAt);
+        }
+        return project;
+    }
+
+    /**
+     * Returns {@code project} itself if it is still the current version, or the reloaded graph if
+     * the project has changed since it was loaded. Costs one primary key lookup when nothing has
+     * changed. Throws {@link NoSuchElementException} if the project has been deleted.
+     */
+    public Project refreshProject(Project project) {
+        Integer projectId = project.getProjectId();
+        flushIfPending(projectId);
+        Integer version = projectDao.fetchProjectVersion(projectId).orElseThrow(() -> new NoSuchElementException("Project with project ID=" + projectId + " does not exist."));
+        if (version.equals(project.getVersion())) {
+            return project;
+        }
+        Project cached = projectCache.get(projectId);
+        if (Objects.isNull(cached) || !version.equals(cached.getVersion())) {
+            projectCache.invalidate(projectId);
+        }
+        return fetchProjectById(projectId);
+    }
+
+    /**
+     * Returns just the project's ID and name, without loading its graph.
+     */
+    public ProjectSummary fetchProjectSummaryById(Integer projectId) {
+        flushIfPending(projectId);
+        return projectDao.fetchProjectSummaryById(projectId).orElseThrow(() -> new NoSuchElementException("Project with project ID=" + projectId + " does not exist."));
+    }
+
+    /**
+     * Loads the full graphs of many projects in a few batched queries instead of one
+     * {@link #fetchProjectById(Integer)} per project. Unknown IDs are skipped. As there, misses are
+     * loaded from the primary.
+     */
+    public List<Project> fetchProjectsByIds(Collection<Integer> projectIds) {
+        projectIds.forEach(this::flushIfPending);
+        Map<Integer, Project> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer projectId : projectIds) {
+            Project cached = projectCache.get(projectId);
+            if (Objects.nonNull(cached)) {
+                found.put(projectId, cached);
+            } else {
+                missing.add(projectId);
+            }
+        }
+        long loadStartedAt = projectCache.startLoad();
+        for (Project project : DbConnection.readFromPrimary(() -> projectDao.fetchProjectsByIds(missing))) {
+            projectCache.put(project, loadStartedAt);
+            found.put(project.getProjectId(), project);
+        }
+        return projectIds.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the precomputed material cost, counts and hours variance of the given projects
+     * without loading their child rows.
+     */
+    public List<ProjectRollup> fetchRollups(Collection<Integer> projectIds) {
+        flushBeforeListing();
+        return projectRollupDao.fetchRollups(projectIds);
+    }
+
+    public List<ProjectRollup> fetchMostExpensiveProjects(int limit) {
+        flushBeforeListing();
+        return projectRollupDao.fetchMostExpensive(limit);
+    }
+
+    public List<ProjectRollup> fetchProjectsOverEstimate(BigDecimal minVariance, int limit) {
+        flushBeforeListing();
+        return projectRollupDao.fetchOverEstimate(minVariance, limit);
+    }
+
+    /**
+     * Recomputes every project's rollup, e.g. after rows were changed outside this application.
+     */
+    public void rebuildRollups() {
+        projectRollupDao.rebuildAllRollups();
+    }
+
+    /**
+     * Full-text search over project names, notes and step text. Returns up to {@code limit}
+     * projects containing every word of the query, best match first, without querying MySQL.
+     */
+    public List<ProjectSearchIndex.SearchHit> searchProjects(String query, int limit) {
+        flushBeforeListing();
+        synchronized (searchIndex) {
+            if (!searchIndexReady) {
+                loadSearchIndex();
+                searchIndexReady = true;
+            }
+        }
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Rebuilds the search index from the database, picking up changes made outside this service.
+     */
+    public void rebuildSearchIndex() {
+        synchronized (searchIndex) {
+            try (Stream<Project> projects = projectDao.streamAllProjects();
+                 Stream<Step> steps = projectDao.streamAllSteps()) {
+                searchIndex.rebuild(projects, steps);
+            }
+            searchIndexReady = true;
+        }
+    }
+
+    /**
+     * Writes the search index to -Dprojects.search.indexFile, if set, for a fast restart. The
+     * file is stamped with {@link ProjectDao#fetchProjectsStamp()}, taken just before it is
+     * written, and is only loaded again while the database still has that stamp.
+     */
+    public void saveSearchIndex() {
+        synchronized (searchIndex) {
+            if (Objects.isNull(searchIndexFile) || !searchIndexReady) {
+                return;
+            }
+            try {
+                searchIndex.save(Path.of(searchIndexFile), projectDao.fetchProjectsStamp());
+            } catch (IOException e) {
+                throw new DbException(e);
+            }
+        }
+    }
+
+    /* Loads the saved index if it is current, and rebuilds it from the database otherwise. */
+    private void loadSearchIndex() {
+        if (Objects.nonNull(searchIndexFile) && Files.exists(Path.of(searchIndexFile))) {
+            try {
+                searchIndex.load(Path.of(searchIndexFile), projectDao.fetchProjectsStamp());
+                return;
+            } catch (IOException e) {
+                /* A stale, foreign or damaged file is simply rebuilt. */
+            }
+        }
+        rebuildSearchIndex();
+    }
+
+    private void updateSearchIndex(Consumer<ProjectSearchIndex> update) {
+        synchronized (searchIndex) {
+            if (searchIndexReady) {
+                update.accept(searchIndex);
+            }
+        }
+    }
+
+    /**
+     * Returns the project catalog snapshot, mapping it from -Dprojects.catalog.snapshotFile (or
+     * building it from the database if the file does not exist yet) and writing any local writes
+     * into a new generation first.
+     */
+    public ProjectCatalogSnapshot currentCatalogSnapshot() {
+        synchronized (pendingCatalogChanges) {
+            ProjectCatalogSnapshot snapshot = mappedCatalogSnapshot();
+            if (!pendingCatalogChanges.isEmpty()) {
+                try {
+                    Path generation = ProjectCatalogSnapshot.nextGeneration(catalogPointer());
+                    snapshot.writeMerged(generation, pendingCatalogChanges);
+                    publishCatalogSnapshot(generation);
+                } catch (IOException e) {
+                    throw new DbException(e);
+                }
+            }
+            return catalogSnapshot;
+        }
+    }
+
+    /**
+     * Brings the catalog snapshot up to date with projects added by other nodes: only projects
+     * with IDs above the snapshot's highest ID are read from the database, a page at a time.
+     */
+    public void refreshCatalogSnapshot() {
+        synchronized (pendingCatalogChanges) {
+            Integer after = currentCatalogSnapshot().maxProjectId();
+            List<Project> page;
+            do {
+                page = projectDao.fetchProjectsAfter(after, CATALOG_REFRESH_PAGE_SIZE);
+                for (Project project : page) {
+                    pendingCatalogChanges.put(project.getProjectId(), project);
+                    after = project.getProjectId();
+                }
+            } while (page.size() == CATALOG_REFRESH_PAGE_SIZE);
+            currentCatalogSnapshot();
+        }
+    }
+
+    /**
+     * Rewrites the catalog snapshot from every project in the database, picking up changes and
+     * deletes made by other nodes.
+     */
+    public void rebuildCatalogSnapshot() {
+        synchronized (pendingCatalogChanges) {
+            try (Stream<Project> projects = projectDao.streamAllProjects()) {
+                Path generation = ProjectCatalogSnapshot.nextGeneration(catalogPointer());
+                ProjectCatalogSnapshot.write(generation, projects.iterator());
+                publishCatalogSnapshot(generation);
+            } catch (IOException e) {
+                throw new DbException(e);
+            }
+        }
+    }
+
+    /* The snapshot as last published, without the queued changes. Call holding pendingCatalogChanges. */
+    private ProjectCatalogSnapshot mappedCatalogSnapshot() {
+        if (Objects.isNull(catalogSnapshot)) {
+            try {
+                catalogSnapshot = ProjectCatalogSnapshot.openCurrent(catalogPointer());
+            } catch (IOException e) {
+                throw new DbException(e);
+            }
+            if (Objects.isNull(catalogSnapshot)) {
+                rebuildCatalogSnapshot();
+            }
+        }
+        return catalogSnapshot;
+    }
+
+    /* Maps a newly written generation, then makes it the one other readers open. */
+    private void publishCatalogSnapshot(Path generation) throws IOException {
+        ProjectCatalogSnapshot snapshot = ProjectCatalogSnapshot.open(generation);
+        ProjectCatalogSnapshot.publish(catalogPointer(), generation);
+        catalogSnapshot = snapshot;
+        pendingCatalogChanges.clear();
+    }
+
+    private Path catalogPointer() {
+        return Path.of(Objects.requireNonNull(catalogSnapshotFile, "projects.catalog.snapshotFile is not set."));
+    }
+
+    private void recordCatalogChange(Integer projectId, Project project) {
+        if (Objects.nonNull(catalogSnapshotFile)) {
+            synchronized (pendingCatalogChanges) {
+                pendingCatalogChanges.put(projectId, project);
+            }
+        }
+    }
+
+    /**
+     * Counts the projects matching an AND/OR/NOT combination of categories, without querying
+     * MySQL.
+     */
+    public int countProjectsInCategories(CategoryFilter filter) {
+        return readyCategoryIndex().count(filter);
+    }
+
+    /**
+     * Returns a page of IDs of projects matching the category filter, ascending. Pass the last ID
+     * of the previous page as {@code afterProjectId}, or null for the first page.
+     */
+    public int[] findProjectIdsInCategories(CategoryFilter filter, Integer afterProjectId, int limit) {
+        return readyCategoryIndex().findProjectIds(filter, afterProjectId, limit);
+    }
+
+    /**
+     * Rebuilds the category index from the database, picking up changes made outside this service.
+     */
+    public void rebuildCategoryIndex() {
+        synchronized (categoryIndex) {
+            try (Stream<ProjectSummary> projects = projectDao.streamAllProjectSummaries();
+                 Stream<ProjectCategory> projectCategories = projectDao.streamAllProjectCategories()) {
+                categoryIndex.rebuild(projects, projectCategories);
+            }
+            categoryIndexReady = true;
+        }
+    }
+
+    private CategoryIndex readyCategoryIndex() {
+        synchronized (categoryIndex) {
+            if (!categoryIndexReady) {
+                rebuildCategoryIndex();
+            }
+        }
+        return categoryIndex;
+    }
+
+    private void updateCategoryIndex(Consumer<CategoryIndex> update) {
+        synchronized (categoryIndex) {
+            if (categoryIndexReady) {
+                update.accept(categoryIndex);
+            }
+        }
+    }
+
+    /**
+     * Loads a project as the compact, immutable {@link ProjectView}, for callers that keep many
+     * projects in memory. Not served from the project cache.
+     */
+    public ProjectView fetchProjectViewById(Integer projectId) {
+        flushIfPending(projectId);
+        return projectDao.fetchProjectViewById(projectId).orElseThrow(() -> new NoSuchElementException("Project with project ID=" + projectId + " does not exist."));
+    }
+
+    public List<ProjectView> fetchProjectViewsByIds(Collection<Integer> projectIds) {
+        projectIds.forEach(this::flushIfPending);
+        return projectDao.fetchProjectViewsByIds(projectIds);
+    }
+
+    private ProjectWriteBehind createWriteBehind() {
+        long intervalMillis = Long.getLong("projects.writeBehind.intervalMillis", 0L);
+        if (intervalMillis <= 0) {
+            return null;
+        }
+        ProjectWriteBehind buffer = ProjectWriteBehind.start(projectDao, intervalMillis,
+                Integer.getInteger("projects.writeBehind.maxPending", 500),
+                Integer.getInteger("projects.writeBehind.maxAttempts", 5),
+                this::afterWriteBehindFlush, this::afterWriteBehindDrop);
+        DbConnection.runBeforeShutdown(buffer::close);
+        return buffer;
     }
 
+    public ProjectCache.Stats getCacheStats() {
+        return projectCache.getStats();
+    }
+
+    /**
+     * Updates the project's details, throwing {@link DbException} if the project does not exist.
+     * In write-behind mode the project's existence is checked with a primary key lookup on the
+     * primary, where a project just added is sure to be found, and the update is queued; a
+     * project deleted before the queue is flushed is skipped then.
+     */
     public boolean modifyProjectDetails(Project project) {
-        boolean isModified = projectDao.modifyProjectDetails(project);
-        if (isModified) {
+        if (Objects.nonNull(writeBehind)) {
+            if (DbConnection.readFromPrimary(() -> projectDao.fetchProjectVersion(project.getProjectId())).isEmpty()) {
+                throw new DbException("Project with project ID=" + project.getProjectId() + " does not exist.");
+            }
+            projectCache.invalidate(project.getProjectId());
+            writeBehind.enqueue(project);
+            return true;
+        }
+        if (!projectDao.modifyProjectDetails(project)) {
             throw new DbException("Project with project ID=" + project.getProjectId() + " does not exist.");
         }
-        return isModified;
+        afterProjectModified(project);
+        return true;
+    }
+
+    /**
+     * Adds a step at the end of the project.
+     */
+    public Step appendStep(Integer projectId, String stepText) {
+        Step step = stepDao.appendStep(projectId, stepText).orElseThrow(() -> new NoSuchElementException("Project with project ID=" + projectId + " does not exist."));
+        afterStepsAdded(projectId, List.of(step));
+        return step;
+    }
+
+    /**
+     * Adds a step directly after another step of the project, or first if {@code afterStepId} is
+     * null.
+     */
+    public Step insertStepAfter(Integer projectId, Integer afterStepId, String stepText) {
+        Step step = stepDao.insertStepAfter(projectId, afterStepId, stepText).orElseThrow(() -> new NoSuchElementException("Project with project ID=" + projectId + " has no step with step ID=" + afterStepId + "."));
+        afterStepsAdded(projectId, List.of(step));
+        return step;
+    }
+
+    /**
+     * Moves a step directly after another step of its project, or first if {@code afterStepId} is
+     * null.
+     */
+    public void moveStep(Integer stepId, Integer afterStepId) {
+        Integer projectId = stepDao.moveStep(stepId, afterStepId).orElseThrow(() -> new NoSuchElementException("Step with step ID=" + stepId + " or " + afterStepId + " does not exist."));
+        projectCache.invalidate(projectId);
+    }
+
+    public void deleteStep(Integer stepId) {
+        Step step = stepDao.deleteStep(stepId).orElseThrow(() -> new NoSuchElementException("Step with step ID=" + stepId + " does not exist."));
+        projectCache.invalidate(step.getProjectId());
+        updateSearchIndex(index -> index.unindexSteps(step.getProjectId(), List.of(step)));
+    }
+
+    /**
+     * Adds many materials to a project in one batched transaction and sets their IDs.
+     */
+    public List<Material> addMaterials(Integer projectId, List<Material> materials) {
+        if (!projectDao.addMaterials(projectId, materials)) {
+            throw new NoSuchElementException("Project with project ID=" + projectId + " does not exist.");
+        }
+        projectCache.invalidate(projectId);
+        return materials;
+    }
+
+    /**
+     * Appends many steps to a project, in list order, in one batched transaction and sets their
+     * IDs and step order.
+     */
+    public List<Step> addSteps(Integer projectId, List<Step> steps) {
+        if (!projectDao.addSteps(projectId, steps)) {
+            throw new NoSuchElementException("Project with project ID=" + projectId + " does not exist.");
+        }
+        afterStepsAdded(projectId, steps);
+        return steps;
+    }
+
+    /**
+     * Replaces the project's categories with the given ones.
+     */
+    public void setCategories(Integer projectId, Collection<Integer> categoryIds) {
+        if (!projectDao.setCategories(projectId, categoryIds)) {
+            throw new NoSuchElementException("Project with project ID=" + projectId + " does not exist.");
+        }
+        projectCache.invalidate(projectId);
+        updateCategoryIndex(index -> index.setCategories(projectId, categoryIds));
+    }
+
+    private void afterStepsAdded(Integer projectId, List<Step> steps) {
+        projectCache.invalidate(projectId);
+        updateSearchIndex(index -> index.indexSteps(projectId, steps));
+    }
+
+    /**
+     * Writes any queued write-behind updates now. Does nothing unless write-behind is enabled.
+     */
+    public void flushPendingWrites() {
+        if (Objects.nonNull(writeBehind)) {
+            writeBehind.flush();
+        }
+    }
+
+    private void afterProjectModified(Project project) {
+        projectCache.invalidate(project.getProjectId());
+        updateSearchIndex(index -> index.updateProjectDetails(project));
+        recordCatalogChange(project.getProjectId(), project);
+    }
+
+    private void afterWriteBehindFlush(List<Project> written, List<Integer> modifiedIds) {
+        Set<Integer> modified = new HashSet<>(modifiedIds);
+        for (Project project : written) {
+            projectCache.invalidate(project.getProjectId());
+            if (modified.contains(project.getProjectId())) {
+                afterProjectModified(project);
+            }
+        }
+    }
+
+    private void afterWriteBehindDrop(Project project, RuntimeException failure) {
+        projectCache.invalidate(project.getProjectId());
+        System.err.println("Write-behind dropped the update to project ID=" + project.getProjectId()
+                + ": " + failure.getMessage());
+    }
+
+    /*
+     * Listings write every queued update first. An update that fails stays queued, or is dropped
+     * and reported, rather than failing the listing; the database still has the row it would
+     * have changed. Call before taking pendingCatalogChanges, which the flush needs.
+     */
+    private void flushBeforeListing() {
+        if (Objects.nonNull(writeBehind) && writeBehind.hasPending()) {
+            try {
+                writeBehind.flush();
+            } catch (DbException e) {
+                /* The failed updates stay queued for the next flush, or were dropped and reported. */
+            }
+        }
+    }
+
+    /* Whether an update to the project is still queued by the write-behind buffer. */
+    boolean isWritePending(Integer projectId) {
+        return Objects.nonNull(writeBehind) && writeBehind.isPending(projectId);
+    }
+
+    /*
+     * Reads of a single project see its queued updates: they are flushed first. Package-private
+     * so that AsyncProjectService reads through it too.
+     */
+    void flushIfPending(Integer projectId) {
+        if (Objects.nonNull(writeBehind) && writeBehind.isPending(projectId)) {
+            writeBehind.flush();
+        }
     }
 
     public void deleteProject(Integer projectId) {
-        if (!projectDao.deleteProject(projectId)) {
+        boolean deleted = projectDao.deleteProject(projectId);
+        projectCache.invalidate(projectId);
+        if (deleted) {
+            updateSearchIndex(index -> index.removeProject(projectId));
+            updateCategoryIndex(index -> index.removeProject(projectId));
+            recordCatalogChange(projectId, null);
+        }
+        if (!deleted) {
             throw new DbException("Project with project ID=" + projectId + " does not exist.");
         }
     }
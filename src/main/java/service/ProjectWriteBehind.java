@@ -0,0 +1,241 @@
+package service;
+
+import entity.Project;
+import projects.dao.DbConnection;
+import projects.dao.ProjectDao;
+import projects.dao.ReplicaRouter;
+import projects.exceptions.DbException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Write-behind buffer for {@link ProjectService#modifyProjectDetails(Project)}. Updates are held
+ * in memory, one per project ID with the latest winning (each update sets every column, so the
+ * latest one is the merge), and written by {@link ProjectDao#modifyProjectsDetails} as one batched
+ * transaction every {@code intervalMillis}, as soon as {@code maxPending} projects are waiting, or
+ * when {@link #flush()} is called.
+ * <p>
+ * If the batch fails, each update in it is retried on its own, so one bad update does not hold
+ * back the rest. An update that still fails is put back, behind any newer one for the same
+ * project, and retried on the next flush. After {@code maxAttempts} failed flushes it is dropped
+ * and passed to {@code onDropped}. While the database is unreachable every update fails, so
+ * updates queued through an outage longer than {@code maxAttempts} flushes are dropped too.
+ * {@link #close()} stops the timer and flushes what is left.
+ * <p>
+ * The read-your-writes session of each thread that queued an update is noted when the batch
+ * commits, so that thread's next reads go to the primary even though the flush thread did the
+ * write.
+ */
+public final class ProjectWriteBehind implements AutoCloseable {
+    private final ProjectDao projectDao;
+    private final int maxPending;
+    private final int maxAttempts;
+    private final BiConsumer<List<Project>, List<Integer>> onFlushed;
+    private final BiConsumer<Project, RuntimeException> onDropped;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<Integer, Project> pending = new LinkedHashMap<>();
+    private final Set<Integer> inFlight = new HashSet<>();
+    private final Set<ReplicaRouter.Session> sessions = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Integer, Integer> failedAttempts = new HashMap<>();
+    private final Object flushLock = new Object();
+
+    private ProjectWriteBehind(ProjectDao projectDao, int maxPending, int maxAttempts,
+                               BiConsumer<List<Project>, List<Integer>> onFlushed,
+                               BiConsumer<Project, RuntimeException> onDropped) {
+        this.projectDao = projectDao;
+        this.maxPending = maxPending;
+        this.maxAttempts = maxAttempts;
+        this.onFlushed = onFlushed;
+        this.onDropped = onDropped;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "project-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a buffer and starts its flush timer.
+     *
+     * @param maxAttempts The number of flushes an update may fail before it is dropped.
+     * @param onFlushed   Called after each flush that wrote anything with the projects written and
+     *                    the IDs of those that existed.
+     * @param onDropped   Called with each dropped update and the error of its last attempt.
+     */
+    public static ProjectWriteBehind start(ProjectDao projectDao, long intervalMillis, int maxPending,
+                                           int maxAttempts,
+                                           BiConsumer<List<Project>, List<Integer>> onFlushed,
+                                           BiConsumer<Project, RuntimeException> onDropped) {
+        ProjectWriteBehind buffer = new ProjectWriteBehind(projectDao, maxPending, maxAttempts, onFlushed, onDropped);
+        buffer.scheduler.scheduleWithFixedDelay(buffer::flushQuietly, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+        return buffer;
+    }
+
+    /**
+     * Queues the project's new details, replacing any update still queued for it.
+     */
+    public void enqueue(Project project) {
+        boolean full;
+        synchronized (pending) {
+            pending.put(project.getProjectId(), copyOf(project));
+            failedAttempts.remove(project.getProjectId());
+            sessions.add(DbConnection.currentSession());
+            full = pending.size() >= maxPending;
+        }
+        if (full) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Returns true if an update for the project is queued or being written.
+     */
+    public boolean isPending(Integer projectId) {
+        synchronized (pending) {
+            return pending.containsKey(projectId) || inFlight.contains(projectId);
+        }
+    }
+
+    /**
+     * Returns true if any update is queued or being written.
+     */
+    public boolean hasPending() {
+        synchronized (pending) {
+            return !pending.isEmpty() || !inFlight.isEmpty();
+        }
+    }
+
+    /**
+     * Writes every queued update now and waits for the write to commit. Throws
+     * {@link DbException} if any update could not be written; those updates are left queued, or
+     * dropped if they have used up their attempts, and the rest are written.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<Project> batch;
+            List<ReplicaRouter.Session> writers;
+            synchronized (pending) {
+                batch = new ArrayList<>(pending.values());
+                writers = new ArrayList<>(sessions);
+                pending.clear();
+                sessions.clear();
+                batch.forEach(project -> inFlight.add(project.getProjectId()));
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                List<Project> written = new ArrayList<>(batch.size());
+                List<Integer> modified = new ArrayList<>(batch.size());
+                List<Project> failed = new ArrayList<>();
+                RuntimeException failure = null;
+                try {
+                    modified.addAll(projectDao.modifyProjectsDetails(batch));
+                    written.addAll(batch);
+                } catch (RuntimeException e) {
+                    /* Write the updates one by one to find those that fail on their own. */
+                    for (Project project : batch) {
+                        try {
+                            modified.addAll(projectDao.modifyProjectsDetails(List.of(project)));
+                            written.add(project);
+                        } catch (RuntimeException rowFailure) {
+                            failed.add(project);
+                            failure = rowFailure;
+                        }
+                    }
+                }
+                if (!written.isEmpty()) {
+                    long committedAt = System.currentTimeMillis();
+                    writers.forEach(session -> session.noteWrite(committedAt));
+                    synchronized (pending) {
+                        written.forEach(project -> failedAttempts.remove(project.getProjectId()));
+                    }
+                    onFlushed.accept(written, modified);
+                }
+                if (!failed.isEmpty()) {
+                    putBackOrDrop(failed, writers, failure);
+                    throw new DbException("Write-behind could not write " + failed.size() + " update(s).", failure);
+                }
+            } finally {
+                synchronized (pending) {
+                    inFlight.clear();
+                }
+            }
+        }
+    }
+
+    /* Requeues failed updates that have attempts left and no newer update, and drops the rest. */
+    private void putBackOrDrop(List<Project> failed, List<ReplicaRouter.Session> writers, RuntimeException failure) {
+        List<Project> dropped = new ArrayList<>();
+        synchronized (pending) {
+            Map<Integer, Project> newer = new LinkedHashMap<>(pending);
+            pending.clear();
+            for (Project project : failed) {
+                Integer projectId = project.getProjectId();
+                if (newer.containsKey(projectId)) {
+                    continue;
+                }
+                int attempts = failedAttempts.merge(projectId, 1, Integer::sum);
+                if (attempts >= maxAttempts) {
+                    failedAttempts.remove(projectId);
+                    dropped.add(project);
+                } else {
+                    pending.put(projectId, project);
+                }
+            }
+            pending.putAll(newer);
+            sessions.addAll(writers);
+        }
+        dropped.forEach(project -> onDropped.accept(project, failure));
+    }
+
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("Write-behind flush failed: " + e.getMessage());
+        }
+    }
+
+    private static Project copyOf(Project project) {
+        Project copy = new Project();
+        copy.setProjectId(project.getProjectId());
+        copy.setProjectName(project.getProjectName());
+        copy.setEstimatedHours(project.getEstimatedHours());
+        copy.setActualHours(project.getActualHours());
+        copy.setDifficulty(project.getDifficulty());
+        copy.setNotes(project.getNotes());
+        return copy;
+    }
+}
@@ -1,3 +1,8 @@
+-- Drops the whole schema and recreates it at the V1 baseline. For development only: on the next
+-- start projects.dao.SchemaMigrator applies the later scripts in db/migration, exactly as it does
+-- on a deployed database. Schema changes go in a new migration, not in this file.
+DROP table IF EXISTS schema_version;
+DROP table IF EXISTS project_rollup;
 DROP table IF EXISTS project_category;
 DROP table IF EXISTS material;
 DROP table IF EXISTS step;
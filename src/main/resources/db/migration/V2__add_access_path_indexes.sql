@@ -0,0 +1,9 @@
+-- Indexes for the access paths ProjectDao uses.
+
+-- Steps are always read per project in step order: (project_id, step_order) serves the
+-- WHERE project_id = ? ORDER BY step_order fetch without a filesort.
+CREATE INDEX idx_step_project_order ON step (project_id, step_order);
+
+-- The unique (project_id, category_id) key covers lookups by project; this covers the reverse,
+-- finding the projects in a category, without touching the base rows.
+CREATE INDEX idx_project_category_category ON project_category (category_id, project_id);
@@ -0,0 +1,2 @@
+-- Serves ProjectQuery name-prefix filters (project_name LIKE 'prefix%') and sorting by name.
+CREATE INDEX idx_project_name ON project (project_name);
@@ -0,0 +1,26 @@
+-- Per-project cost and effort totals, kept current by the DAO write paths.
+CREATE TABLE project_rollup (
+  project_id INT NOT NULL,
+  material_cost DECIMAL(12, 2) NOT NULL DEFAULT 0,
+  material_count INT NOT NULL DEFAULT 0,
+  step_count INT NOT NULL DEFAULT 0,
+  estimated_hours DECIMAL(7, 2),
+  actual_hours DECIMAL(7, 2),
+  hours_variance DECIMAL(8, 2),
+  PRIMARY KEY (project_id),
+  FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_project_rollup_material_cost ON project_rollup (material_cost);
+
+CREATE INDEX idx_project_rollup_hours_variance ON project_rollup (hours_variance);
+
+INSERT INTO project_rollup (project_id, material_cost, material_count, step_count, estimated_hours, actual_hours, hours_variance)
+SELECT p.project_id,
+  COALESCE((SELECT SUM(m.num_required * m.cost) FROM material m WHERE m.project_id = p.project_id), 0),
+  (SELECT COUNT(*) FROM material m WHERE m.project_id = p.project_id),
+  (SELECT COUNT(*) FROM step s WHERE s.project_id = p.project_id),
+  p.estimated_hours,
+  p.actual_hours,
+  p.actual_hours - p.estimated_hours
+FROM project p;
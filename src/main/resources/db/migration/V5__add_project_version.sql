@@ -0,0 +1,3 @@
+-- A counter bumped by every DAO write to a project or its children, so a client holding a copy of
+-- the project can check it is current with a primary key lookup instead of reloading the graph.
+ALTER TABLE project ADD COLUMN version INT NOT NULL DEFAULT 1;
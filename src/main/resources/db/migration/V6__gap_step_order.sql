@@ -0,0 +1,28 @@
+-- Step order keys become gapped (multiples of 1024 per project) so that StepDao can insert or move a
+-- step between two others by writing only that step. Existing steps keep their relative order.
+-- The positions are worked out into a scratch table first, so the UPDATE never reads the table it
+-- writes.
+CREATE TABLE step_position (
+  step_id INT NOT NULL,
+  new_position INT NOT NULL,
+  PRIMARY KEY (step_id)
+);
+
+INSERT INTO step_position (step_id, new_position)
+SELECT s.step_id,
+  (SELECT COUNT(*) FROM step earlier
+   WHERE earlier.project_id = s.project_id
+     AND (earlier.step_order < s.step_order
+       OR (earlier.step_order = s.step_order AND earlier.step_id <= s.step_id)))
+FROM step s;
+
+UPDATE step
+SET step_order = 1024 * (SELECT p.new_position FROM step_position p WHERE p.step_id = step.step_id);
+
+DROP TABLE step_position;
+
+-- Two steps of a project can no longer share a position. The unique index also serves the
+-- WHERE project_id = ? ORDER BY step_order fetch, so it replaces idx_step_project_order.
+CREATE UNIQUE INDEX uq_step_project_order ON step (project_id, step_order);
+
+DROP INDEX idx_step_project_order ON step;
@@ -0,0 +1,51 @@
+package entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FixedPointTest {
+  @Test
+  void decimalsAreHeldAsHundredths() {
+    assertEquals(1250, FixedPoint.fromBigDecimal(new BigDecimal("12.50")));
+    assertEquals(1200, FixedPoint.fromBigDecimal(new BigDecimal("12")));
+    assertEquals(-75, FixedPoint.fromBigDecimal(new BigDecimal("-0.75")));
+    assertEquals(new BigDecimal("12.50"), FixedPoint.toBigDecimal(1250));
+  }
+
+  @Test
+  void extraDecimalPlacesRoundHalfUp() {
+    assertEquals(1, FixedPoint.fromBigDecimal(new BigDecimal("0.005")));
+    assertEquals(0, FixedPoint.fromBigDecimal(new BigDecimal("0.0049")));
+  }
+
+  @Test
+  void nullIsHeldAsTheSentinel() {
+    assertEquals(FixedPoint.NULL, FixedPoint.fromBigDecimal(null));
+    assertTrue(FixedPoint.isNull(FixedPoint.NULL));
+    assertNull(FixedPoint.toBigDecimal(FixedPoint.NULL));
+  }
+
+  @Test
+  void valuesTooLargeForAnIntAreRejected() {
+    assertThrows(ArithmeticException.class, () -> FixedPoint.fromBigDecimal(new BigDecimal("21474836.48")));
+  }
+
+  @Test
+  void projectViewChildListsAreImmutableCopies() {
+    List<ProjectView.StepView> steps = new ArrayList<>(List.of(new ProjectView.StepView(1, "Cut", 1024)));
+    ProjectView view = new ProjectView(1, "Shed", 1250, FixedPoint.NULL, 2, null, List.of(), steps, List.of());
+
+    steps.clear();
+
+    assertEquals(1, view.steps().size());
+    assertThrows(UnsupportedOperationException.class, () -> view.steps().clear());
+  }
+}
@@ -0,0 +1,122 @@
+package projects.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import projects.dao.metrics.DaoMetrics;
+import projects.dao.metrics.OperationStats;
+import projects.exceptions.DbException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+    private static final String URL = "jdbc:h2:mem:pool_test;DB_CLOSE_DELAY=-1";
+
+    private final ConnectionPool pool = new ConnectionPool(URL, 2, 100, 60_000, 8);
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void returnedConnectionIsReused() throws SQLException {
+        Connection physical;
+        try (Connection conn = pool.borrow()) {
+            physical = conn.unwrap(Connection.class);
+            assertEquals(1, pool.getActiveCount());
+        }
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+
+        try (Connection conn = pool.borrow()) {
+            assertSame(physical, conn.unwrap(Connection.class));
+        }
+    }
+
+    @Test
+    void borrowTimesOutWhenThePoolIsExhausted() throws SQLException {
+        try (Connection first = pool.borrow(); Connection second = pool.borrow()) {
+            assertEquals(2, pool.getActiveCount());
+            assertThrows(DbException.class, pool::borrow);
+            assertFalse(first.isClosed() || second.isClosed());
+        }
+        pool.borrow().close();
+    }
+
+    @Test
+    void returnedConnectionRejectsFurtherUse() throws SQLException {
+        Connection conn = pool.borrow();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, () -> conn.prepareStatement("SELECT 1"));
+        assertThrows(SQLException.class, conn::createStatement);
+        assertThrows(SQLException.class, () -> conn.prepareCall("CALL 1"));
+        assertThrows(SQLException.class, () -> conn.unwrap(Connection.class));
+        assertThrows(SQLException.class, conn::commit);
+    }
+
+    @Test
+    void secondCloseDoesNotReturnTheConnectionTwice() throws SQLException {
+        AtomicInteger returns = new AtomicInteger();
+        Connection conn = pool.borrow(returns::incrementAndGet);
+        conn.close();
+        conn.close();
+
+        assertEquals(1, returns.get());
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    void preparedStatementsAreCachedAcrossBorrows() throws SQLException {
+        PreparedStatement first;
+        try (Connection conn = pool.borrow(); PreparedStatement stmt = conn.prepareStatement("SELECT 1")) {
+            first = stmt;
+        }
+        try (Connection conn = pool.borrow(); PreparedStatement stmt = conn.prepareStatement("SELECT 1")) {
+            assertSame(first, stmt);
+            assertTrue(stmt.executeQuery().next());
+        }
+    }
+
+    @Test
+    void statementsAreCountedPerExecution() {
+        OperationStats stats = DaoMetrics.forOperation("connectionPoolTest");
+        stats.reset();
+
+        DaoMetrics.time("connectionPoolTest", () -> {
+            try (Connection conn = pool.borrow();
+                 PreparedStatement cached = conn.prepareStatement("SELECT 1");
+                 PreparedStatement uncached = conn.prepareStatement("SELECT 1");
+                 Statement plain = conn.createStatement()) {
+                cached.executeQuery().close();
+                cached.executeQuery().close();
+                uncached.executeQuery().close();
+                plain.execute("SELECT 2");
+                conn.prepareStatement("SELECT 3").close();
+            } catch (SQLException e) {
+                throw new DbException(e);
+            }
+        });
+
+        assertEquals(4, stats.getStatementCount());
+    }
+
+    @Test
+    void closedPoolRefusesToLend() {
+        pool.close();
+
+        assertThrows(DbException.class, pool::borrow);
+    }
+}
@@ -0,0 +1,185 @@
+package projects.dao;
+
+import entity.Material;
+import entity.Project;
+import entity.ProjectRollup;
+import entity.Step;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectDaoTest {
+    private final ProjectDao projectDao = new ProjectDao();
+    private final ProjectRollupDao rollupDao = new ProjectRollupDao();
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.reset();
+    }
+
+    @Test
+    void insertProjectsReturnsTheGeneratedIdsInOrder() {
+        List<Project> inserted = projectDao.insertProjects(
+                List.of(TestDatabase.newProject("Shed"), TestDatabase.newProject("Deck")));
+
+        assertEquals(List.of("Shed", "Deck"), inserted.stream().map(Project::getProjectName).toList());
+        assertTrue(inserted.get(0).getProjectId() < inserted.get(1).getProjectId());
+        assertEquals("Deck", projectDao.fetchProjectDetailsById(inserted.get(1).getProjectId())
+                .orElseThrow().getProjectName());
+    }
+
+    @Test
+    void childWritesKeepTheRollupCurrent() {
+        Integer projectId = projectDao.insertProject(TestDatabase.newProject("Shed")).getProjectId();
+
+        assertTrue(projectDao.addMaterials(projectId, List.of(material("Nails", 2, "1.25"), material("Glue", 1, "4.00"))));
+        assertTrue(projectDao.addSteps(projectId, List.of(step("Cut"), step("Glue"), step("Nail"))));
+
+        ProjectRollup rollup = rollupDao.fetchRollups(List.of(projectId)).get(0);
+        assertEquals(0, new BigDecimal("6.50").compareTo(rollup.getMaterialCost()));
+        assertEquals(2, rollup.getMaterialCount());
+        assertEquals(3, rollup.getStepCount());
+        assertEquals(0, BigDecimal.ONE.compareTo(rollup.getHoursVariance()));
+    }
+
+    @Test
+    @Tag("mysql")
+    void incrementalRollupsMatchAFullRebuild() {
+        StepDao stepDao = new StepDao(projectId -> { });
+        List<Project> projects = projectDao.insertProjects(
+                List.of(TestDatabase.newProject("Shed"), TestDatabase.newProject("Deck")));
+        Project shed = projects.get(0);
+        Integer deckId = projects.get(1).getProjectId();
+
+        projectDao.addMaterials(shed.getProjectId(), List.of(material("Nails", 3, "0.10"), material("Paint", null, "9.99")));
+        projectDao.addMaterials(shed.getProjectId(), List.of(material("Glue", 1, "4.00")));
+        projectDao.addSteps(deckId, List.of(step("Cut"), step("Nail")));
+        Step sand = stepDao.appendStep(deckId, "Sand").orElseThrow();
+        stepDao.insertStepAfter(deckId, null, "Measure");
+        stepDao.deleteStep(sand.getStepId());
+        shed.setActualHours(new BigDecimal("7.25"));
+        projectDao.modifyProjectDetails(shed);
+        projects.get(1).setEstimatedHours(null);
+        projectDao.modifyProjectsDetails(List.of(projects.get(1)));
+
+        List<String> incremental = rollups(shed.getProjectId(), deckId);
+        rollupDao.rebuildAllRollups();
+
+        assertEquals(rollups(shed.getProjectId(), deckId), incremental);
+        assertEquals("4.30/3/0/5.25", incremental.get(0));
+    }
+
+    @Test
+    @Tag("mysql")
+    void rebuildPicksUpRowsWrittenOutsideTheDao() throws SQLException {
+        Integer projectId = projectDao.insertProject(TestDatabase.newProject("Shed")).getProjectId();
+        try (Connection conn = DbConnection.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO material (project_id, material_name, num_required, cost)"
+                    + " VALUES (" + projectId + ", 'Screws', 4, 0.50)");
+        }
+
+        rollupDao.rebuildAllRollups();
+
+        assertEquals("2.00/1/0/1.00", rollups(projectId).get(0));
+    }
+
+    @Test
+    void addedStepsAreAppendedOneGapApart() {
+        Integer projectId = projectDao.insertProject(TestDatabase.newProject("Shed")).getProjectId();
+
+        projectDao.addSteps(projectId, List.of(step("Cut"), step("Glue")));
+        projectDao.addSteps(projectId, List.of(step("Nail")));
+
+        List<Step> steps = projectDao.fetchStepsByProjectId(projectId);
+        assertEquals(List.of("Cut", "Glue", "Nail"), steps.stream().map(Step::getStepText).toList());
+        assertEquals(List.of(StepDao.GAP, 2 * StepDao.GAP, 3 * StepDao.GAP),
+                steps.stream().map(Step::getStepOrder).toList());
+    }
+
+    @Test
+    void childWritesToAMissingProjectAreRefused() {
+        assertFalse(projectDao.addMaterials(12345, List.of(material("Nails", 2, "1.25"))));
+        assertFalse(projectDao.addSteps(12345, List.of(step("Cut"))));
+    }
+
+    @Test
+    void everyWriteBumpsTheVersion() {
+        Project project = projectDao.insertProject(TestDatabase.newProject("Shed"));
+        Integer projectId = project.getProjectId();
+        int version = projectDao.fetchProjectVersion(projectId).orElseThrow();
+
+        projectDao.addSteps(projectId, List.of(step("Cut")));
+        project.setNotes("Changed");
+        assertTrue(projectDao.modifyProjectDetails(project));
+
+        assertTrue(projectDao.fetchProjectVersion(projectId).orElseThrow() > version);
+    }
+
+    @Test
+    void modifyOfAMissingProjectReturnsFalse() {
+        Project project = TestDatabase.newProject("Ghost");
+        project.setProjectId(12345);
+
+        assertFalse(projectDao.modifyProjectDetails(project));
+        assertEquals(List.of(), projectDao.modifyProjectsDetails(List.of(project)));
+    }
+
+    @Test
+    void keysetPagesVisitEveryProjectOnce() {
+        List<Project> projects = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Project project = TestDatabase.newProject("Project " + i);
+            project.setDifficulty(i % 3);
+            projects.add(project);
+        }
+        projectDao.insertProjects(projects);
+
+        List<Integer> seen = new ArrayList<>();
+        List<Project> page = projectDao.findProjects(query().limit(3));
+        while (!page.isEmpty()) {
+            page.forEach(project -> seen.add(project.getProjectId()));
+            Project last = page.get(page.size() - 1);
+            page = projectDao.findProjects(query().after(last.getDifficulty().longValue(), last.getProjectId()).limit(3));
+        }
+
+        List<Integer> expected = projectDao.findProjects(query()).stream().map(Project::getProjectId).toList();
+        assertEquals(7, expected.size());
+        assertEquals(expected, seen);
+    }
+
+    private static ProjectQuery query() {
+        return new ProjectQuery().orderBy(ProjectQuery.SortField.DIFFICULTY, false);
+    }
+
+    private static Material material(String name, Integer numRequired, String cost) {
+        Material material = new Material();
+        material.setMaterialName(name);
+        material.setNumRequired(numRequired);
+        material.setCost(new BigDecimal(cost));
+        return material;
+    }
+
+    private static Step step(String text) {
+        Step step = new Step();
+        step.setStepText(text);
+        return step;
+    }
+
+    private List<String> rollups(Integer... projectIds) {
+        return rollupDao.fetchRollups(List.of(projectIds)).stream()
+                .map(rollup -> rollup.getMaterialCost().toPlainString() + "/" + rollup.getMaterialCount()
+                        + "/" + rollup.getStepCount() + "/" + rollup.getHoursVariance())
+                .toList();
+    }
+}
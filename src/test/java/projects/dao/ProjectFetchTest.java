@@ -0,0 +1,220 @@
+package projects.dao;
+
+import entity.Category;
+import entity.FixedPoint;
+import entity.Material;
+import entity.Project;
+import entity.ProjectView;
+import entity.Step;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The project graph reads. On H2 they send one query at a time; under {@code -Pmysql} they use
+ * the multi-statement round trips.
+ */
+@Tag("mysql")
+class ProjectFetchTest {
+    private final ProjectDao projectDao = new ProjectDao();
+
+    private Integer shedId;
+    private Integer deckId;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.reset();
+        shedId = projectDao.insertProject(TestDatabase.newProject("Shed")).getProjectId();
+        deckId = projectDao.insertProject(TestDatabase.newProject("Deck")).getProjectId();
+        Integer outdoor = TestDatabase.insertCategory("Outdoor");
+        Integer wood = TestDatabase.insertCategory("Wood");
+
+        projectDao.addMaterials(shedId, List.of(material("Nails", 2, "1.25"), material("Glue", 1, "4.00")));
+        projectDao.addSteps(shedId, List.of(step("Cut"), step("Glue"), step("Nail")));
+        projectDao.setCategories(shedId, List.of(outdoor, wood));
+        projectDao.addSteps(deckId, List.of(step("Level")));
+        projectDao.setCategories(deckId, List.of(outdoor));
+    }
+
+    @Test
+    void fetchProjectByIdLoadsTheWholeGraph() {
+        Project shed = projectDao.fetchProjectById(shedId).orElseThrow();
+
+        assertEquals("Shed", shed.getProjectName());
+        assertEquals(0, new BigDecimal("2.00").compareTo(shed.getEstimatedHours()));
+        assertEquals(List.of("Nails", "Glue"), shed.getMaterials().stream().map(Material::getMaterialName).toList());
+        assertEquals(List.of("Cut", "Glue", "Nail"), shed.getSteps().stream().map(Step::getStepText).toList());
+        assertEquals(List.of("Outdoor", "Wood"),
+                shed.getCategories().stream().map(Category::getCategoryName).sorted().toList());
+    }
+
+    @Test
+    void fetchProjectByIdOfAMissingProjectIsEmpty() {
+        assertTrue(projectDao.fetchProjectById(12345).isEmpty());
+    }
+
+    @Test
+    void fetchProjectsByIdsKeepsTheOrderGivenAndSkipsDuplicatesAndMissingIds() {
+        List<Project> projects = projectDao.fetchProjectsByIds(List.of(deckId, 12345, shedId, deckId));
+
+        assertEquals(List.of(deckId, shedId), projects.stream().map(Project::getProjectId).toList());
+        assertEquals(List.of("Level"), projects.get(0).getSteps().stream().map(Step::getStepText).toList());
+        assertEquals(List.of("Outdoor"),
+                projects.get(0).getCategories().stream().map(Category::getCategoryName).toList());
+        assertEquals(List.of("Cut", "Glue", "Nail"),
+                projects.get(1).getSteps().stream().map(Step::getStepText).toList());
+        assertEquals(2, projects.get(1).getMaterials().size());
+        assertEquals(2, projects.get(1).getCategories().size());
+    }
+
+    @Test
+    void fetchProjectsByIdsSpansSeveralChunks() {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = deckId + 1200; id > 0; id--) {
+            ids.add(id);
+        }
+
+        List<Project> projects = projectDao.fetchProjectsByIds(ids);
+
+        assertEquals(List.of(deckId, shedId), projects.stream().map(Project::getProjectId).toList());
+        assertEquals(3, projects.get(1).getSteps().size());
+    }
+
+    @Test
+    void fetchProjectsByIdsOfNothingIsEmpty() {
+        assertEquals(List.of(), projectDao.fetchProjectsByIds(List.of()));
+    }
+
+    @Test
+    void fetchProjectViewsByIdsLoadsTheGraphsInTheOrderGiven() {
+        List<ProjectView> views = projectDao.fetchProjectViewsByIds(List.of(deckId, 12345, shedId, deckId));
+
+        assertEquals(List.of(deckId, shedId), views.stream().map(ProjectView::projectId).toList());
+        ProjectView shed = views.get(1);
+        assertEquals("Shed", shed.projectName());
+        assertEquals(200, shed.estimatedHours());
+        assertEquals(300, shed.actualHours());
+        assertEquals(2, shed.difficulty());
+        assertEquals(List.of(new ProjectView.MaterialView(shed.materials().get(0).materialId(), "Nails", 2, 125),
+                        new ProjectView.MaterialView(shed.materials().get(1).materialId(), "Glue", 1, 400)),
+                shed.materials());
+        assertEquals(List.of("Cut", "Glue", "Nail"), shed.steps().stream().map(ProjectView.StepView::stepText).toList());
+        assertEquals(List.of("Outdoor", "Wood"),
+                shed.categories().stream().map(ProjectView.CategoryView::categoryName).toList());
+        assertSame(views.get(0).categories().get(0), shed.categories().get(0));
+    }
+
+    @Test
+    void fetchProjectViewByIdHoldsNullColumnsAsTheSentinel() {
+        Project bare = new Project();
+        bare.setProjectName("Bare");
+        Integer bareId = projectDao.insertProject(bare).getProjectId();
+
+        ProjectView view = projectDao.fetchProjectViewById(bareId).orElseThrow();
+
+        assertTrue(FixedPoint.isNull(view.estimatedHours()));
+        assertTrue(FixedPoint.isNull(view.actualHours()));
+        assertTrue(FixedPoint.isNull(view.difficulty()));
+        assertEquals(List.of(), view.materials());
+        assertTrue(projectDao.fetchProjectViewById(12345).isEmpty());
+    }
+
+    @Test
+    void fetchProjectViewsByIdsSpansSeveralChunks() {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = deckId + 1200; id > 0; id--) {
+            ids.add(id);
+        }
+
+        List<ProjectView> views = projectDao.fetchProjectViewsByIds(ids);
+
+        assertEquals(List.of(deckId, shedId), views.stream().map(ProjectView::projectId).toList());
+        assertEquals(3, views.get(1).steps().size());
+    }
+
+    @Test
+    void streamAllProjectsReadsEveryProjectAndReleasesItsConnection() {
+        try (Stream<Project> projects = projectDao.streamAllProjects()) {
+            assertEquals(List.of("Shed", "Deck"), projects.map(Project::getProjectName).toList());
+        }
+        try (Stream<Step> steps = projectDao.streamAllSteps()) {
+            assertEquals(List.of("Cut", "Glue", "Nail", "Level"), steps.map(Step::getStepText).toList());
+        }
+
+        assertEquals(0, DbConnection.getPool().getActiveCount());
+    }
+
+    @Test
+    void streamClosedBeforeTheEndReleasesItsConnection() {
+        try (Stream<Project> projects = projectDao.streamAllProjects()) {
+            assertEquals("Shed", projects.findFirst().orElseThrow().getProjectName());
+        }
+
+        assertEquals(0, DbConnection.getPool().getActiveCount());
+    }
+
+    @Test
+    void keysetPagesFollowTheLastIdOfThePreviousPage() {
+        List<Project> first = projectDao.fetchProjectsAfter(null, 1);
+        List<Project> second = projectDao.fetchProjectsAfter(first.get(0).getProjectId(), 1);
+        List<Project> third = projectDao.fetchProjectsAfter(second.get(0).getProjectId(), 1);
+
+        assertEquals(List.of(shedId), first.stream().map(Project::getProjectId).toList());
+        assertEquals(List.of(deckId), second.stream().map(Project::getProjectId).toList());
+        assertEquals(List.of(), third);
+    }
+
+    @Test
+    void fetchLeavesTheConnectionReadyForWrites() {
+        projectDao.fetchProjectById(shedId);
+
+        Project deck = projectDao.fetchProjectById(deckId).orElseThrow();
+        deck.setNotes("Changed");
+        assertTrue(projectDao.modifyProjectDetails(deck));
+        assertEquals("Changed", projectDao.fetchProjectById(deckId).orElseThrow().getNotes());
+    }
+
+    @Test
+    void onlyTheMultiStatementPoolsAllowMultiStatements() throws SQLException {
+        assumeTrue(DbConnection.supportsMultiStatementReads());
+
+        try (Connection conn = DbConnection.getConnection(); Statement stmt = conn.createStatement()) {
+            assertThrows(SQLException.class, () -> stmt.execute("SELECT 1; SELECT 2"));
+        }
+        try (Connection conn = DbConnection.getReadConnection(); Statement stmt = conn.createStatement()) {
+            assertThrows(SQLException.class, () -> stmt.execute("SELECT 1; SELECT 2"));
+        }
+        try (Connection conn = DbConnection.getMultiStatementReadConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("SELECT 1; SELECT 2");
+            assertTrue(stmt.getMoreResults());
+        }
+    }
+
+    private static Material material(String name, int numRequired, String cost) {
+        Material material = new Material();
+        material.setMaterialName(name);
+        material.setNumRequired(numRequired);
+        material.setCost(new BigDecimal(cost));
+        return material;
+    }
+
+    private static Step step(String text) {
+        Step step = new Step();
+        step.setStepText(text);
+        return step;
+    }
+}
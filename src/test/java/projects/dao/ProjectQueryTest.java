@@ -0,0 +1,124 @@
+package projects.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProjectQueryTest {
+    @Test
+    void noCriteriaOrdersByProjectId() {
+        List<Object> parameters = new ArrayList<>();
+
+        String sql = new ProjectQuery().toSql("project", "project_category", parameters);
+
+        assertEquals("SELECT p.* FROM project p ORDER BY p.project_id ASC", sql);
+        assertEquals(List.of(), parameters);
+    }
+
+    @Test
+    void filtersAreBoundInOrder() {
+        List<Object> parameters = new ArrayList<>();
+
+        String sql = new ProjectQuery()
+                .difficultyBetween(2, 4)
+                .nameStartsWith("50%_off")
+                .inCategory(7, 9)
+                .limit(10)
+                .toSql("project", "project_category", parameters);
+
+        assertEquals("SELECT p.* FROM project p WHERE p.difficulty >= ? AND p.difficulty <= ?"
+                + " AND p.project_name LIKE ?"
+                + " AND EXISTS (SELECT 1 FROM project_category pc WHERE pc.project_id = p.project_id"
+                + " AND pc.category_id IN (?,?))"
+                + " ORDER BY p.project_id ASC LIMIT ?", sql);
+        assertEquals(List.of(2, 4, "50\\%\\_off%", 7, 9, 10), parameters);
+    }
+
+    @Test
+    void keysetOnProjectIdAlone() {
+        List<Object> parameters = new ArrayList<>();
+
+        String sql = new ProjectQuery()
+                .orderBy(ProjectQuery.SortField.PROJECT_ID, false)
+                .after(null, 50)
+                .limit(20)
+                .toSql("project", "project_category", parameters);
+
+        assertEquals("SELECT p.* FROM project p WHERE p.project_id < ? ORDER BY p.project_id DESC LIMIT ?", sql);
+        assertEquals(List.of(50, 20), parameters);
+    }
+
+    @Test
+    void keysetOnASortKeyBreaksTiesOnProjectId() {
+        List<Object> parameters = new ArrayList<>();
+
+        String sql = new ProjectQuery()
+                .orderBy(ProjectQuery.SortField.ESTIMATED_HOURS, false)
+                .after(new BigDecimal("3.50"), 12)
+                .toSql("project", "project_category", parameters);
+
+        assertEquals("SELECT p.* FROM project p WHERE (p.estimated_hours < ? OR (p.estimated_hours = ?"
+                + " AND p.project_id > ?)) ORDER BY p.estimated_hours DESC, p.project_id ASC", sql);
+        assertEquals(List.of(new BigDecimal("3.50"), new BigDecimal("3.50"), 12), parameters);
+    }
+
+    @Test
+    void keysetValueIsConvertedToTheColumnType() {
+        assertEquals(List.of(3, 3, 1), keysetParameters(ProjectQuery.SortField.DIFFICULTY, 3L));
+        assertEquals(List.of(3, 3, 1), keysetParameters(ProjectQuery.SortField.DIFFICULTY, new BigDecimal("3.00")));
+        assertEquals(List.of(new BigDecimal("2.5"), new BigDecimal("2.5"), 1),
+                keysetParameters(ProjectQuery.SortField.ACTUAL_HOURS, 2.5d));
+        assertEquals(List.of("Deck", "Deck", 1),
+                keysetParameters(ProjectQuery.SortField.PROJECT_NAME, new StringBuilder("Deck")));
+    }
+
+    @Test
+    void keysetValueOfTheWrongTypeIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> keysetParameters(ProjectQuery.SortField.DIFFICULTY, true));
+        assertThrows(IllegalArgumentException.class,
+                () -> keysetParameters(ProjectQuery.SortField.DIFFICULTY, new BigDecimal("3.5")));
+        assertThrows(IllegalArgumentException.class,
+                () -> keysetParameters(ProjectQuery.SortField.DIFFICULTY, Long.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class,
+                () -> keysetParameters(ProjectQuery.SortField.PROJECT_NAME, 5));
+    }
+
+    @Test
+    void keysetValueThatIsNeitherANumberNorTextIsRejectedUpFront() {
+        ProjectQuery query = new ProjectQuery().orderBy(ProjectQuery.SortField.PROJECT_NAME, true);
+
+        assertThrows(IllegalArgumentException.class, () -> query.after(LocalDate.of(2024, 1, 1), 1));
+    }
+
+    @Test
+    void keysetNeedsASortValue() {
+        ProjectQuery query = new ProjectQuery()
+                .orderBy(ProjectQuery.SortField.DIFFICULTY, true)
+                .after(null, 1);
+
+        assertThrows(IllegalStateException.class, () -> query.toSql("project", "project_category", new ArrayList<>()));
+    }
+
+    @Test
+    void offsetWithoutLimit() {
+        List<Object> parameters = new ArrayList<>();
+
+        String sql = new ProjectQuery().offset(5).toSql("project", "project_category", parameters);
+
+        assertEquals("SELECT p.* FROM project p ORDER BY p.project_id ASC LIMIT " + Long.MAX_VALUE + " OFFSET ?", sql);
+        assertEquals(List.of(5), parameters);
+    }
+
+    private static List<Object> keysetParameters(ProjectQuery.SortField field, Object sortValue) {
+        List<Object> parameters = new ArrayList<>();
+        new ProjectQuery().orderBy(field, true).after(sortValue, 1).toSql("project", "project_category", parameters);
+        return parameters;
+    }
+}
@@ -0,0 +1,124 @@
+package projects.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ReplicaRouterTest {
+    private static final String PRIMARY_URL = "jdbc:h2:mem:router_primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:router_replica";
+
+    private final ConnectionPool primary = new ConnectionPool(PRIMARY_URL, 4, 100, 60_000);
+    private final ConnectionPool replica = new ConnectionPool(REPLICA_URL, 4, 100, 60_000);
+
+    @AfterEach
+    void tearDown() {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readsGoToTheReplica() throws SQLException {
+        ReplicaRouter router = router(60_000);
+
+        assertEquals(REPLICA_URL, readDatabase(router));
+    }
+
+    @Test
+    void readsDuringAnOpenWriteGoToThePrimary() throws SQLException {
+        ReplicaRouter router = router(0);
+
+        try (Connection write = router.borrowForWrite()) {
+            assertEquals(PRIMARY_URL, write.getMetaData().getURL());
+            assertEquals(PRIMARY_URL, readDatabase(router));
+        }
+    }
+
+    @Test
+    void readYourWritesWindowStartsWhenTheWriteIsReturned() throws SQLException {
+        ReplicaRouter router = router(60_000);
+
+        router.borrowForWrite().close();
+
+        assertEquals(PRIMARY_URL, readDatabase(router));
+    }
+
+    @Test
+    void readFromPrimarySendsReadsToThePrimaryUntilItReturns() throws SQLException {
+        ReplicaRouter router = router(60_000);
+        ReplicaRouter twin = router.withPools(primary, List.of(replica));
+
+        assertEquals(PRIMARY_URL, router.readFromPrimary(() -> readDatabaseUnchecked(router)));
+        assertEquals(PRIMARY_URL, router.readFromPrimary(() -> readDatabaseUnchecked(twin)));
+        assertEquals(REPLICA_URL, readDatabase(router));
+    }
+
+    @Test
+    void twinRouterSharesTheReadYourWritesWindow() throws SQLException {
+        ReplicaRouter router = router(60_000);
+        ReplicaRouter twin = router.withPools(primary, List.of(replica));
+
+        router.borrowForWrite().close();
+
+        assertEquals(PRIMARY_URL, readDatabase(twin));
+    }
+
+    @Test
+    void anotherSessionStillReadsFromTheReplica() throws Exception {
+        ReplicaRouter router = router(60_000);
+        router.borrowForWrite().close();
+        String[] database = new String[1];
+
+        Thread reader = new Thread(() -> database[0] = readDatabaseUnchecked(router));
+        reader.start();
+        reader.join();
+
+        assertEquals(REPLICA_URL, database[0]);
+    }
+
+    @Test
+    void boundSessionCarriesTheWindowToAnotherThread() throws Exception {
+        ReplicaRouter router = router(60_000);
+        router.borrowForWrite().close();
+        ReplicaRouter.Session session = router.currentSession();
+        String[] database = new String[1];
+
+        Thread worker = new Thread(() -> {
+            ReplicaRouter.Session previous = router.bindSession(session);
+            try {
+                database[0] = readDatabaseUnchecked(router);
+            } finally {
+                router.bindSession(previous);
+            }
+        });
+        worker.start();
+        worker.join();
+
+        assertEquals(PRIMARY_URL, database[0]);
+        assertSame(session, router.currentSession());
+    }
+
+    private ReplicaRouter router(long readYourWritesMillis) {
+        return new ReplicaRouter(primary, List.of(replica), ReplicaRouter.Policy.ROUND_ROBIN, readYourWritesMillis);
+    }
+
+    private static String readDatabase(ReplicaRouter router) throws SQLException {
+        try (Connection conn = router.borrowForRead()) {
+            return conn.getMetaData().getURL();
+        }
+    }
+
+    private static String readDatabaseUnchecked(ReplicaRouter router) {
+        try {
+            return readDatabase(router);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package projects.dao;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import projects.exceptions.DbException;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaMigratorTest {
+    @Test
+    void splitsOnSemicolonsAtTheEndOfALine() {
+        String sql = "-- A comment; with a semicolon\r\n"
+                + "CREATE TABLE a (\r\n"
+                + "  id INT\r\n"
+                + ");\r\n"
+                + "\r\n"
+                + "INSERT INTO a VALUES (1);\n"
+                + "CREATE INDEX idx_a ON a (id)";
+
+        assertEquals(List.of("CREATE TABLE a (\n  id INT\n)", "INSERT INTO a VALUES (1)", "CREATE INDEX idx_a ON a (id)"),
+                SchemaMigrator.splitStatements(sql));
+    }
+
+    @Test
+    void semicolonInsideALineDoesNotSplit() {
+        assertEquals(List.of("INSERT INTO a VALUES ('x;y')"),
+                SchemaMigrator.splitStatements("INSERT INTO a VALUES ('x;y');\n"));
+    }
+
+    @Test
+    void blankScriptHasNoStatements() {
+        assertEquals(List.of(), SchemaMigrator.splitStatements("\n-- nothing here\n\n"));
+    }
+
+    @Test
+    void everyMigrationScriptSplitsIntoStatements() {
+        SchemaMigrator migrator = new SchemaMigrator();
+        for (String script : SchemaMigrator.MIGRATIONS) {
+            List<String> statements = SchemaMigrator.splitStatements(migrator.readScript(script));
+            assertFalse(statements.isEmpty(), script);
+            statements.forEach(statement -> assertFalse(statement.endsWith(";"), script));
+        }
+    }
+
+    @Test
+    @Tag("mysql")
+    void migrateAppliesEachScriptOnce() {
+        TestDatabase.resetToVersion(0);
+
+        assertEquals(SchemaMigrator.MIGRATIONS.size(), new SchemaMigrator().migrate());
+        assertEquals(0, new SchemaMigrator().migrate());
+    }
+
+    @Test
+    @Tag("mysql")
+    void migrateRefusesAnEditedScript() {
+        TestDatabase.reset();
+        execute("UPDATE schema_version SET checksum = checksum + 1 WHERE version = 1");
+
+        DbException e = assertThrows(DbException.class, () -> new SchemaMigrator().migrate());
+        assertTrue(e.getMessage().contains(SchemaMigrator.MIGRATIONS.get(0)), e.getMessage());
+    }
+
+    @Test
+    @Tag("mysql")
+    void gapStepOrderRenumbersEachProjectInStepOrder() {
+        TestDatabase.resetToVersion(5);
+        execute("INSERT INTO project (project_id, project_name) VALUES (1, 'One'), (2, 'Two')");
+        execute("INSERT INTO step (step_id, project_id, step_text, step_order) VALUES "
+                + "(1, 1, 'c', 3), (2, 1, 'a', 1), (3, 1, 'b2', 2), (4, 1, 'b1', 2), (5, 2, 'x', 7)");
+
+        TestDatabase.applyMigration(6);
+
+        assertEquals(List.of("1:a:1024", "1:b2:2048", "1:b1:3072", "1:c:4096", "2:x:1024"),
+                query("SELECT project_id, step_text, step_order FROM step ORDER BY project_id, step_order"));
+    }
+
+    private static void execute(String sql) {
+        try (Connection conn = DbConnection.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new DbException(e);
+        }
+    }
+
+    private static List<String> query(String sql) {
+        try (Connection conn = DbConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            List<String> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(rs.getInt(1) + ":" + rs.getString(2) + ":" + rs.getInt(3));
+            }
+            return rows;
+        } catch (SQLException e) {
+            throw new DbException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package projects.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementCacheTest {
+    private static final Method PREPARE = prepareMethod();
+
+    private Connection physical;
+    private StatementCache cache;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        physical = DriverManager.getConnection("jdbc:h2:mem:statement_cache_test");
+        cache = new StatementCache(physical, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        cache.closeAll();
+        physical.close();
+    }
+
+    @Test
+    void closedStatementIsHandedOutAgain() throws SQLException {
+        PreparedStatement first = prepare("SELECT ?");
+        first.close();
+
+        assertSame(first, prepare("SELECT ?"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void statementInUseIsNotHandedOutTwice() throws SQLException {
+        PreparedStatement first = prepare("SELECT ?");
+        PreparedStatement second = prepare("SELECT ?");
+
+        assertNotSame(first, second);
+        second.close();
+        assertTrue(second.isClosed());
+        assertFalse(first.isClosed());
+        first.close();
+    }
+
+    @Test
+    void closeResetsParameters() throws SQLException {
+        try (PreparedStatement stmt = prepare("SELECT ?")) {
+            stmt.setInt(1, 42);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+            }
+        }
+        try (PreparedStatement stmt = prepare("SELECT ?")) {
+            assertThrows(SQLException.class, stmt::executeQuery);
+        }
+    }
+
+    @Test
+    void closedProxyRejectsFurtherUse() throws SQLException {
+        PreparedStatement stmt = prepare("SELECT 1");
+        stmt.close();
+
+        assertTrue(stmt.isClosed());
+        assertThrows(SQLException.class, stmt::executeQuery);
+    }
+
+    @Test
+    void leastRecentlyUsedStatementIsEvicted() throws SQLException {
+        PreparedStatement first = prepare("SELECT 1");
+        first.close();
+        prepare("SELECT 2").close();
+        prepare("SELECT 3").close();
+
+        assertEquals(2, cache.size());
+        assertNotSame(first, prepare("SELECT 1"));
+    }
+
+    private PreparedStatement prepare(String sql) throws SQLException {
+        return cache.prepare(PREPARE, new Object[]{sql});
+    }
+
+    private static Method prepareMethod() {
+        try {
+            return Connection.class.getMethod("prepareStatement", String.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
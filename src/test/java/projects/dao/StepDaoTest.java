@@ -0,0 +1,137 @@
+package projects.dao;
+
+import entity.Step;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StepDaoTest {
+    private final ProjectDao projectDao = new ProjectDao();
+    private final List<Integer> renumbered = new ArrayList<>();
+    private final StepDao stepDao = new StepDao(renumbered::add);
+    private Integer projectId;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.reset();
+        projectId = projectDao.insertProject(TestDatabase.newProject("Bookshelf")).getProjectId();
+    }
+
+    @Test
+    void appendedStepsAreSpacedOneGapApart() {
+        Step first = stepDao.appendStep(projectId, "Cut").orElseThrow();
+        Step second = stepDao.appendStep(projectId, "Sand").orElseThrow();
+
+        assertEquals(StepDao.GAP, first.getStepOrder());
+        assertEquals(2 * StepDao.GAP, second.getStepOrder());
+    }
+
+    @Test
+    void insertTakesTheMidpointOfItsNeighbours() {
+        Step first = stepDao.appendStep(projectId, "Cut").orElseThrow();
+        stepDao.appendStep(projectId, "Paint");
+
+        Step inserted = stepDao.insertStepAfter(projectId, first.getStepId(), "Sand").orElseThrow();
+
+        assertEquals(StepDao.GAP + StepDao.GAP / 2, inserted.getStepOrder());
+        assertEquals(List.of("Cut", "Sand", "Paint"), stepTexts());
+    }
+
+    @Test
+    void insertBeforeTheFirstStep() {
+        stepDao.appendStep(projectId, "Sand");
+
+        stepDao.insertStepAfter(projectId, null, "Cut");
+
+        assertEquals(List.of("Cut", "Sand"), stepTexts());
+    }
+
+    @Test
+    void insertIntoAMissingProjectReturnsEmpty() {
+        assertEquals(Optional.empty(), stepDao.appendStep(projectId + 1, "Cut"));
+        assertEquals(Optional.empty(), stepDao.insertStepAfter(projectId, 12345, "Cut"));
+    }
+
+    @Test
+    void moveStepReturnsTheStepsProject() {
+        Step cut = stepDao.appendStep(projectId, "Cut").orElseThrow();
+        stepDao.appendStep(projectId, "Sand");
+        Step paint = stepDao.appendStep(projectId, "Paint").orElseThrow();
+
+        assertEquals(Optional.of(projectId), stepDao.moveStep(cut.getStepId(), paint.getStepId()));
+        assertEquals(List.of("Sand", "Paint", "Cut"), stepTexts());
+
+        assertEquals(Optional.of(projectId), stepDao.moveStep(cut.getStepId(), null));
+        assertEquals(List.of("Cut", "Sand", "Paint"), stepTexts());
+    }
+
+    @Test
+    void moveOfAMissingStepReturnsEmpty() {
+        assertEquals(Optional.empty(), stepDao.moveStep(12345, null));
+    }
+
+    @Test
+    void deleteLeavesAGap() {
+        Step cut = stepDao.appendStep(projectId, "Cut").orElseThrow();
+        stepDao.appendStep(projectId, "Sand");
+
+        assertEquals("Cut", stepDao.deleteStep(cut.getStepId()).orElseThrow().getStepText());
+        assertEquals(List.of(2 * StepDao.GAP), stepOrders());
+        assertEquals(Optional.empty(), stepDao.deleteStep(cut.getStepId()));
+    }
+
+    @Test
+    void renumberRespacesTheKeysInOrderAndNotifies() {
+        Step first = stepDao.appendStep(projectId, "Cut").orElseThrow();
+        stepDao.appendStep(projectId, "Paint");
+        Step second = stepDao.insertStepAfter(projectId, first.getStepId(), "Sand").orElseThrow();
+        stepDao.insertStepAfter(projectId, second.getStepId(), "Prime");
+
+        stepDao.renumberSteps(projectId);
+
+        assertEquals(List.of("Cut", "Sand", "Prime", "Paint"), stepTexts());
+        assertEquals(List.of(StepDao.GAP, 2 * StepDao.GAP, 3 * StepDao.GAP, 4 * StepDao.GAP), stepOrders());
+        assertEquals(List.of(projectId), renumbered);
+    }
+
+    @Test
+    void renumberOfAMissingProjectDoesNotNotify() {
+        stepDao.renumberSteps(projectId + 1);
+
+        assertTrue(renumbered.isEmpty());
+    }
+
+    @Test
+    void insertsIntoAUsedUpGapRenumberFirst() {
+        Step first = stepDao.appendStep(projectId, "Step 0").orElseThrow();
+        stepDao.appendStep(projectId, "Last");
+
+        /* Halving a gap of 1024 runs out after ten inserts at the same place. */
+        List<String> expected = new ArrayList<>(List.of("Step 0"));
+        for (int i = 11; i >= 1; i--) {
+            stepDao.insertStepAfter(projectId, first.getStepId(), "Step " + i);
+            expected.add(1, "Step " + i);
+        }
+        expected.add("Last");
+
+        assertEquals(expected, stepTexts());
+        List<Integer> orders = stepOrders();
+        for (int i = 1; i < orders.size(); i++) {
+            assertTrue(orders.get(i) > orders.get(i - 1));
+        }
+    }
+
+    private List<String> stepTexts() {
+        return projectDao.fetchStepsByProjectId(projectId).stream().map(Step::getStepText).toList();
+    }
+
+    private List<Integer> stepOrders() {
+        return projectDao.fetchStepsByProjectId(projectId).stream().map(Step::getStepOrder).toList();
+    }
+}
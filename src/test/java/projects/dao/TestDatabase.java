@@ -0,0 +1,115 @@
+package projects.dao;
+
+import entity.Project;
+import projects.exceptions.DbException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+
+/**
+ * The database the DAO tests run against. By default that is an in-memory H2 database in MySQL
+ * mode, which the surefire configuration points {@code projects.db.url} at. With {@code -Pmysql}
+ * the tests tagged {@code mysql} run against the MySQL database given by {@code projects.db.url}
+ * instead; its schema is dropped.
+ */
+public final class TestDatabase {
+    private TestDatabase() {
+    }
+
+    /**
+     * Drops everything and builds the schema again with {@link SchemaMigrator#migrate()}, as the
+     * application does at startup.
+     */
+    public static void reset() {
+        resetToVersion(0);
+        new SchemaMigrator().migrate();
+    }
+
+    /**
+     * Drops everything and applies the migration scripts up to and including {@code version}, for
+     * testing a migration against data in the schema before it. On MySQL the schema is dropped
+     * with DiyProjects.sql, which leaves the V1 baseline that the V1 script then finds in place.
+     */
+    public static void resetToVersion(int version) {
+        SchemaMigrator migrator = new SchemaMigrator();
+        try (Connection conn = DbConnection.getConnection(); Statement stmt = conn.createStatement()) {
+            if (isMysql(conn)) {
+                for (String statement : SchemaMigrator.splitStatements(readResource("/DiyProjects.sql"))) {
+                    stmt.execute(statement);
+                }
+            } else {
+                stmt.execute("DROP ALL OBJECTS");
+            }
+            for (String script : SchemaMigrator.MIGRATIONS.subList(0, version)) {
+                for (String statement : SchemaMigrator.splitStatements(migrator.readScript(script))) {
+                    stmt.execute(statement);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException(e);
+        }
+    }
+
+    /**
+     * Applies one migration script, by its version number.
+     */
+    public static void applyMigration(int version) {
+        SchemaMigrator migrator = new SchemaMigrator();
+        try (Connection conn = DbConnection.getConnection(); Statement stmt = conn.createStatement()) {
+            for (String statement : SchemaMigrator.splitStatements(
+                    migrator.readScript(SchemaMigrator.MIGRATIONS.get(version - 1)))) {
+                stmt.execute(statement);
+            }
+        } catch (SQLException e) {
+            throw new DbException(e);
+        }
+    }
+
+    public static boolean isMysql(Connection conn) throws SQLException {
+        return "MySQL".equals(conn.getMetaData().getDatabaseProductName());
+    }
+
+    public static Project newProject(String projectName) {
+        Project project = new Project();
+        project.setProjectName(projectName);
+        project.setEstimatedHours(new BigDecimal("2.00"));
+        project.setActualHours(new BigDecimal("3.00"));
+        project.setDifficulty(2);
+        project.setNotes("Notes for " + projectName);
+        return project;
+    }
+
+    /**
+     * Inserts a category and returns its ID. The application has no category writes of its own.
+     */
+    public static Integer insertCategory(String categoryName) {
+        String sql = "INSERT INTO category (category_name) VALUES (?)";
+        try (Connection conn = DbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, categoryName);
+            stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new DbException(e);
+        }
+    }
+
+    private static String readResource(String name) {
+        try (InputStream in = Objects.requireNonNull(TestDatabase.class.getResourceAsStream(name), name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new DbException(e);
+        }
+    }
+}
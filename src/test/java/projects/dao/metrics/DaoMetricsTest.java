@@ -0,0 +1,79 @@
+package projects.dao.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DaoMetricsTest {
+    @Test
+    void timeRecordsEachCallOfTheOperation() {
+        OperationStats stats = fresh("timeRecordsEachCall");
+
+        assertEquals("result", DaoMetrics.time("timeRecordsEachCall", () -> "result"));
+        DaoMetrics.time("timeRecordsEachCall", () -> { });
+
+        assertEquals(2, stats.getCount());
+    }
+
+    @Test
+    void timeRecordsAnOperationThatThrows() {
+        OperationStats stats = fresh("timeRecordsAThrow");
+
+        assertThrows(IllegalStateException.class, () -> DaoMetrics.time("timeRecordsAThrow", () -> {
+            DaoMetrics.recordRollback();
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(1, stats.getCount());
+        assertEquals(1, stats.getRollbackCount());
+    }
+
+    @Test
+    void countsGoToTheInnermostOperation() {
+        OperationStats outer = fresh("outerOperation");
+        OperationStats inner = fresh("innerOperation");
+
+        DaoMetrics.time("outerOperation", () -> {
+            DaoMetrics.recordStatement();
+            DaoMetrics.time("innerOperation", () -> {
+                DaoMetrics.recordStatement();
+                DaoMetrics.recordRowMapped();
+                DaoMetrics.recordRowMapped();
+            });
+            DaoMetrics.recordStatement();
+        });
+
+        assertEquals(2, outer.getStatementCount());
+        assertEquals(0, outer.getRowsMapped());
+        assertEquals(1, inner.getStatementCount());
+        assertEquals(2, inner.getRowsMapped());
+    }
+
+    @Test
+    void countsOutsideAnOperationAreDropped() {
+        OperationStats stats = fresh("noOperation");
+
+        DaoMetrics.recordStatement();
+        DaoMetrics.recordRowMapped();
+
+        assertEquals(0, stats.getStatementCount());
+        assertEquals(0, stats.getRowsMapped());
+    }
+
+    @Test
+    void operationsAreRegisteredOnce() {
+        OperationStats stats = DaoMetrics.forOperation("registeredOnce");
+
+        assertSame(stats, DaoMetrics.forOperation("registeredOnce"));
+        assertTrue(DaoMetrics.getAll().contains(stats));
+    }
+
+    private static OperationStats fresh(String operation) {
+        OperationStats stats = DaoMetrics.forOperation(operation);
+        stats.reset();
+        return stats;
+    }
+}
@@ -0,0 +1,85 @@
+package projects.dao.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0.0, histogram.getMean());
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 0; value < 8; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(8, histogram.getCount());
+        assertEquals(3.5, histogram.getMean());
+        assertEquals(3, histogram.getPercentile(50));
+        assertEquals(7, histogram.getPercentile(100));
+    }
+
+    @Test
+    void percentilesAreWithinTheBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        assertWithinPrecision(5_000_000, histogram.getPercentile(50));
+        assertWithinPrecision(9_500_000, histogram.getPercentile(95));
+        assertWithinPrecision(9_900_000, histogram.getPercentile(99));
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_500.0, histogram.getMean());
+    }
+
+    @Test
+    void percentileNeverExceedsTheMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_001);
+
+        assertEquals(1_000_001, histogram.getPercentile(50));
+    }
+
+    @Test
+    void negativeValuesAreRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    void everyValueFallsInABucketWhoseMidpointIsClose() {
+        for (long value = 8; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+            assertWithinPrecision(value, LatencyHistogram.midpointOf(LatencyHistogram.indexOf(value)));
+        }
+        assertTrue(LatencyHistogram.indexOf(Long.MAX_VALUE) < (64 - 3 + 1) * 8);
+    }
+
+    @Test
+    void resetForgetsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 8, "expected about " + expected + " but was " + actual);
+    }
+}
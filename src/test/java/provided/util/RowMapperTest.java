@@ -0,0 +1,114 @@
+package provided.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import provided.util.DaoBase.DaoException;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RowMapperTest {
+  private Connection conn;
+  private Statement stmt;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    conn = DriverManager.getConnection("jdbc:h2:mem:row_mapper");
+    stmt = conn.createStatement();
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    conn.close();
+  }
+
+  @Test
+  void columnsAreMatchedToFieldsBySnakeCaseName() throws SQLException {
+    try(ResultSet rs = stmt.executeQuery("SELECT 7 AS item_id, 'Oak' AS item_name, 2.50 AS unit_cost, "
+        + "TIMESTAMP '2024-01-02 03:04:05' AS created_at, 'ignored' AS unknown_column")) {
+      rs.next();
+      Item item = RowMapper.forResultSet(rs, Item.class).map(rs);
+
+      assertEquals(7, item.itemId);
+      assertEquals("Oak", item.itemName);
+      assertEquals(new BigDecimal("2.50"), item.unitCost);
+      assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), item.createdAt);
+    }
+  }
+
+  @Test
+  void nullColumnLeavesTheFieldAtItsInitialValue() throws SQLException {
+    try(ResultSet rs = stmt.executeQuery("SELECT CAST(NULL AS INT) AS item_id, CAST(NULL AS VARCHAR) AS item_name")) {
+      rs.next();
+      Item item = RowMapper.forResultSet(rs, Item.class).map(rs);
+
+      assertNull(item.itemId);
+      assertEquals("unnamed", item.itemName);
+    }
+  }
+
+  @Test
+  void mappersAreCachedPerResultSetShape() throws SQLException {
+    RowMapper<Item> first;
+    RowMapper<Item> second;
+    RowMapper<Item> other;
+
+    try(ResultSet rs = stmt.executeQuery("SELECT 1 AS item_id, 'a' AS item_name")) {
+      first = RowMapper.forResultSet(rs, Item.class);
+    }
+    try(ResultSet rs = stmt.executeQuery("SELECT 2 AS ITEM_ID, 'b' AS ITEM_NAME")) {
+      second = RowMapper.forResultSet(rs, Item.class);
+    }
+    try(ResultSet rs = stmt.executeQuery("SELECT 'c' AS item_name, 3 AS item_id")) {
+      other = RowMapper.forResultSet(rs, Item.class);
+    }
+
+    assertSame(first, second);
+    assertNotSame(first, other);
+  }
+
+  @Test
+  void failedConstructionNamesTheMappedClass() throws SQLException {
+    try(ResultSet rs = stmt.executeQuery("SELECT 1 AS item_id")) {
+      rs.next();
+      RowMapper<Broken> mapper = RowMapper.forResultSet(rs, Broken.class);
+
+      DaoException e = assertThrows(DaoException.class, () -> mapper.map(rs));
+      assertTrue(e.getMessage().endsWith(Broken.class.getName()), e.getMessage());
+    }
+  }
+
+  @Test
+  void camelCaseToSnakeCase() {
+    assertEquals("row_insert_time", RowMapper.camelCaseToSnakeCase("rowInsertTime"));
+    assertEquals("notes", RowMapper.camelCaseToSnakeCase("notes"));
+  }
+
+  public static class Item {
+    private Integer itemId;
+    private String itemName = "unnamed";
+    private BigDecimal unitCost;
+    private LocalDateTime createdAt;
+  }
+
+  public static class Broken {
+    private Integer itemId;
+
+    public Broken() {
+      throw new IllegalStateException("cannot be built");
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package service;
+
+import entity.Material;
+import entity.Project;
+import entity.Step;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import projects.dao.TestDatabase;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsyncProjectServiceTest {
+    private static final String WRITE_BEHIND_INTERVAL = "projects.writeBehind.intervalMillis";
+
+    private final ProjectService projectService = new ProjectService();
+    private final AsyncProjectService asyncService = new AsyncProjectService(projectService, 4);
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.reset();
+        project = projectService.addProject(TestDatabase.newProject("Birdhouse"));
+        Integer wood = TestDatabase.insertCategory("Wood");
+        projectService.addMaterials(project.getProjectId(), List.of(material("Nails"), material("Glue")));
+        projectService.addSteps(project.getProjectId(), List.of(step("Cut"), step("Nail"), step("Paint")));
+        projectService.setCategories(project.getProjectId(), List.of(wood));
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncService.close();
+    }
+
+    @Test
+    void fetchLoadsTheGraphAndCachesIt() throws Exception {
+        Project fetched = get(asyncService.fetchProjectById(project.getProjectId()));
+
+        assertEquals("Birdhouse", fetched.getProjectName());
+        assertEquals(2, fetched.getMaterials().size());
+        assertEquals(List.of("Cut", "Nail", "Paint"), fetched.getSteps().stream().map(Step::getStepText).toList());
+        assertEquals(1, fetched.getCategories().size());
+        assertNotNull(projectService.projectCache.get(project.getProjectId()));
+        assertEquals(3, get(asyncService.fetchProjectById(project.getProjectId())).getSteps().size());
+    }
+
+    @Test
+    void fetchOfAMissingProjectFailsWithNoSuchElement() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> get(asyncService.fetchProjectById(project.getProjectId() + 1)));
+
+        assertInstanceOf(NoSuchElementException.class, e.getCause());
+    }
+
+    @Test
+    void failedLoadsGiveBackTheirPermits() throws Exception {
+        /* With room for one load at a time, a leaked permit would leave the next load waiting. */
+        for (int i = 0; i < 5; i++) {
+            assertThrows(ExecutionException.class, () -> get(asyncService.fetchProjectById(-1)));
+        }
+
+        assertEquals("Birdhouse", get(asyncService.fetchProjectById(project.getProjectId())).getProjectName());
+    }
+
+    @Test
+    void concurrentFetchesBeyondThePermitsAllComplete() throws Exception {
+        List<CompletableFuture<Project>> fetches = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            projectService.projectCache.invalidate(project.getProjectId());
+            fetches.add(asyncService.fetchProjectById(project.getProjectId()));
+        }
+
+        for (CompletableFuture<Project> fetch : fetches) {
+            assertEquals(3, get(fetch).getSteps().size());
+        }
+    }
+
+    @Test
+    void fetchSeesAnUpdateStillQueuedByTheWriteBehindBuffer() throws Exception {
+        ProjectService writeBehindService;
+        System.setProperty(WRITE_BEHIND_INTERVAL, String.valueOf(TimeUnit.HOURS.toMillis(1)));
+        try {
+            writeBehindService = new ProjectService();
+        } finally {
+            System.clearProperty(WRITE_BEHIND_INTERVAL);
+        }
+        project.setNotes("Queued");
+        writeBehindService.modifyProjectDetails(project);
+
+        try (AsyncProjectService service = new AsyncProjectService(writeBehindService, 4)) {
+            assertEquals("Queued", get(service.fetchProjectById(project.getProjectId())).getNotes());
+        }
+    }
+
+    private static <T> T get(CompletableFuture<T> future) throws Exception {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    private static Material material(String materialName) {
+        Material material = new Material();
+        material.setMaterialName(materialName);
+        material.setNumRequired(1);
+        material.setCost(new BigDecimal("1.00"));
+        return material;
+    }
+
+    private static Step step(String stepText) {
+        Step step = new Step();
+        step.setStepText(stepText);
+        return step;
+    }
+}
@@ -0,0 +1,85 @@
+package service;
+
+import entity.ProjectCategory;
+import entity.ProjectSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CategoryIndexTest {
+    private final CategoryIndex index = new CategoryIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.setCategories(1, List.of(10, 20));
+        index.setCategories(2, List.of(10));
+        index.setCategories(3, List.of(20, 30));
+        index.addProject(4);
+    }
+
+    @Test
+    void emptyFilterMatchesEveryProject() {
+        assertArrayEquals(new int[]{1, 2, 3, 4}, index.findProjectIds(new CategoryFilter(), null, 10));
+    }
+
+    @Test
+    void filtersCombine() {
+        assertArrayEquals(new int[]{1}, find(new CategoryFilter().allOf(10, 20)));
+        assertArrayEquals(new int[]{1, 2, 3}, find(new CategoryFilter().anyOf(10, 30)));
+        assertArrayEquals(new int[]{2, 4}, find(new CategoryFilter().noneOf(20)));
+        assertArrayEquals(new int[]{3}, find(new CategoryFilter().anyOf(20).noneOf(10)));
+        assertArrayEquals(new int[0], find(new CategoryFilter().allOf(10, 99)));
+        assertEquals(2, index.count(new CategoryFilter().allOf(20)));
+    }
+
+    @Test
+    void findPagesAfterTheGivenId() {
+        assertArrayEquals(new int[]{2, 3}, index.findProjectIds(new CategoryFilter(), 1, 2));
+    }
+
+    @Test
+    void setCategoriesReplacesTheOldOnes() {
+        index.setCategories(1, List.of(30));
+
+        assertArrayEquals(new int[]{2}, find(new CategoryFilter().allOf(10)));
+        assertArrayEquals(new int[]{1, 3}, find(new CategoryFilter().allOf(30)));
+    }
+
+    @Test
+    void removedProjectMatchesNothing() {
+        index.removeProject(1);
+
+        assertArrayEquals(new int[]{2}, find(new CategoryFilter().allOf(10)));
+        assertArrayEquals(new int[]{2, 4}, find(new CategoryFilter().noneOf(20)));
+    }
+
+    @Test
+    void rebuildReplacesTheIndex() {
+        index.rebuild(Stream.of(summary(7), summary(8)), Stream.of(link(7, 10)));
+
+        assertArrayEquals(new int[]{7}, find(new CategoryFilter().allOf(10)));
+        assertArrayEquals(new int[]{8}, find(new CategoryFilter().noneOf(10)));
+    }
+
+    private int[] find(CategoryFilter filter) {
+        return index.findProjectIds(filter, null, 100);
+    }
+
+    private static ProjectSummary summary(int projectId) {
+        ProjectSummary summary = new ProjectSummary();
+        summary.setProjectId(projectId);
+        return summary;
+    }
+
+    private static ProjectCategory link(int projectId, int categoryId) {
+        ProjectCategory link = new ProjectCategory();
+        link.setProjectId(projectId);
+        link.setCategoryId(categoryId);
+        return link;
+    }
+}
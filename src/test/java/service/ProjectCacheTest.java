@@ -0,0 +1,114 @@
+package service;
+
+import entity.Project;
+import entity.Step;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProjectCacheTest {
+    private final ProjectCache cache = new ProjectCache(2, 0);
+
+    @Test
+    void getReturnsACopyOfWhatWasPut() {
+        Project project = project(1, 1);
+        cache.put(project, cache.startLoad());
+        project.setProjectName("Changed after put");
+
+        Project cached = cache.get(1);
+        cached.getSteps().clear();
+        cached.setProjectName("Changed by a caller");
+
+        Project again = cache.get(1);
+        assertNotSame(cached, again);
+        assertEquals("Project 1", again.getProjectName());
+        assertEquals("Cut", again.getSteps().get(0).getStepText());
+    }
+
+    @Test
+    void loadThatStartedBeforeAnInvalidationIsNotCached() {
+        long loadStartedAt = cache.startLoad();
+        cache.invalidate(1);
+
+        cache.put(project(1, 1), loadStartedAt);
+
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void loadThatStartedAfterTheInvalidationIsCached() {
+        cache.invalidate(1);
+        long loadStartedAt = cache.startLoad();
+
+        cache.put(project(1, 1), loadStartedAt);
+
+        assertNotNull(cache.get(1));
+    }
+
+    @Test
+    void invalidationOfAnotherProjectDoesNotDropTheLoad() {
+        long loadStartedAt = cache.startLoad();
+        cache.invalidate(2);
+
+        cache.put(project(1, 1), loadStartedAt);
+
+        assertNotNull(cache.get(1));
+    }
+
+    @Test
+    void invalidateAllDropsLoadsInFlight() {
+        long loadStartedAt = cache.startLoad();
+        cache.invalidateAll();
+
+        cache.put(project(1, 1), loadStartedAt);
+
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void olderVersionDoesNotReplaceANewerOne() {
+        cache.put(project(1, 5), cache.startLoad());
+        Project stale = project(1, 4);
+        stale.setProjectName("Stale");
+
+        cache.put(stale, cache.startLoad());
+
+        assertEquals(5, cache.get(1).getVersion());
+    }
+
+    @Test
+    void leastRecentlyUsedProjectIsEvicted() {
+        cache.put(project(1, 1), cache.startLoad());
+        cache.put(project(2, 1), cache.startLoad());
+        cache.get(1);
+        cache.put(project(3, 1), cache.startLoad());
+
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(1));
+        assertEquals(1, cache.getStats().evictions());
+        assertEquals(2, cache.getStats().size());
+    }
+
+    @Test
+    void zeroSizeCachesNothing() {
+        ProjectCache disabled = new ProjectCache(0, 0);
+
+        disabled.put(project(1, 1), disabled.startLoad());
+
+        assertNull(disabled.get(1));
+    }
+
+    private static Project project(int projectId, int version) {
+        Project project = new Project();
+        project.setProjectId(projectId);
+        project.setProjectName("Project " + projectId);
+        project.setVersion(version);
+        Step step = new Step();
+        step.setStepText("Cut");
+        project.getSteps().add(step);
+        return project;
+    }
+}
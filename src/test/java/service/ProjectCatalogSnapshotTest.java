@@ -0,0 +1,173 @@
+package service;
+
+import entity.FixedPoint;
+import entity.Project;
+import entity.ProjectSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectCatalogSnapshotTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeAndOpen() throws IOException {
+        Path file = dir.resolve("catalog.snap");
+        Project unestimated = project(7, "Bänk", null);
+        ProjectCatalogSnapshot.write(file, List.of(project(3, "Shelf", "2.50"), unestimated).iterator());
+
+        ProjectCatalogSnapshot snapshot = ProjectCatalogSnapshot.open(file);
+
+        assertEquals(2, snapshot.size());
+        assertEquals(7, snapshot.maxProjectId());
+        assertEquals("Shelf", snapshot.projectName(0));
+        assertEquals(250, snapshot.estimatedHours(0));
+        assertEquals(4, snapshot.difficulty(0));
+        assertEquals("Bänk", snapshot.projectName(1));
+        assertEquals(FixedPoint.NULL, snapshot.estimatedHours(1));
+        assertTrue(snapshot.getCreatedAtMillis() > 0);
+    }
+
+    @Test
+    void emptySnapshot() throws IOException {
+        Path file = dir.resolve("empty.snap");
+        ProjectCatalogSnapshot.write(file, Collections.emptyIterator());
+
+        ProjectCatalogSnapshot snapshot = ProjectCatalogSnapshot.open(file);
+
+        assertEquals(0, snapshot.size());
+        assertEquals(0, snapshot.maxProjectId());
+        assertTrue(snapshot.indexOf(1) < 0);
+    }
+
+    @Test
+    void indexOfFindsEveryProject() throws IOException {
+        Path file = dir.resolve("catalog.snap");
+        ProjectCatalogSnapshot.write(file, List.of(
+                project(2, "A", "1"), project(4, "B", "1"), project(6, "C", "1")).iterator());
+        ProjectCatalogSnapshot snapshot = ProjectCatalogSnapshot.open(file);
+
+        assertEquals(0, snapshot.indexOf(2));
+        assertEquals(2, snapshot.indexOf(6));
+        assertEquals(-1, snapshot.indexOf(1));
+        assertEquals(-3, snapshot.indexOf(5));
+        assertEquals(-4, snapshot.indexOf(7));
+    }
+
+    @Test
+    void writeMergedAppliesInsertsUpdatesAndDeletes() throws IOException {
+        Path original = dir.resolve("original.snap");
+        ProjectCatalogSnapshot.write(original, List.of(
+                project(2, "Shelf", "1"), project(4, "Bench", "2"), project(6, "Chest", "3")).iterator());
+        ProjectCatalogSnapshot snapshot = ProjectCatalogSnapshot.open(original);
+
+        SortedMap<Integer, Project> changes = new TreeMap<>();
+        changes.put(1, project(1, "Stool", "0.50"));
+        changes.put(4, project(4, "Garden bench", "2.25"));
+        changes.put(5, project(5, "Box", "1"));
+        changes.put(6, null);
+        changes.put(8, project(8, "Desk", "9"));
+        changes.put(9, null);
+        Path merged = dir.resolve("merged.snap");
+        snapshot.writeMerged(merged, changes);
+
+        ProjectCatalogSnapshot result = ProjectCatalogSnapshot.open(merged);
+        assertEquals(List.of("1 Stool", "2 Shelf", "4 Garden bench", "5 Box", "8 Desk"), describe(result));
+        assertEquals(225, result.estimatedHours(result.indexOf(4)));
+        assertEquals(100, result.estimatedHours(result.indexOf(2)));
+        /* The original file and its mapping are untouched. */
+        assertEquals(List.of("2 Shelf", "4 Bench", "6 Chest"), describe(snapshot));
+    }
+
+    @Test
+    void summariesWithChangesMatchWriteMerged() throws IOException {
+        Path original = dir.resolve("original.snap");
+        ProjectCatalogSnapshot.write(original, List.of(project(2, "Shelf", "1"), project(4, "Bench", "2")).iterator());
+        ProjectCatalogSnapshot snapshot = ProjectCatalogSnapshot.open(original);
+        SortedMap<Integer, Project> changes = new TreeMap<>();
+        changes.put(2, null);
+        changes.put(3, project(3, "Box", "1"));
+        changes.put(4, project(4, "Garden bench", "2"));
+
+        assertEquals(List.of("3 Box", "4 Garden bench"), describe(snapshot.summaries(changes)));
+        Path merged = dir.resolve("merged.snap");
+        snapshot.writeMerged(merged, changes);
+        assertEquals(describe(snapshot.summaries(changes)), describe(ProjectCatalogSnapshot.open(merged)));
+    }
+
+    @Test
+    void publishSwitchesThePointerToTheNewGeneration() throws IOException {
+        Path pointer = dir.resolve("catalog.snap");
+        assertNull(ProjectCatalogSnapshot.openCurrent(pointer));
+
+        Path first = ProjectCatalogSnapshot.nextGeneration(pointer);
+        ProjectCatalogSnapshot.write(first, List.of(project(2, "Shelf", "1")).iterator());
+        ProjectCatalogSnapshot.publish(pointer, first);
+        ProjectCatalogSnapshot mapped = ProjectCatalogSnapshot.openCurrent(pointer);
+        assertEquals(List.of("2 Shelf"), describe(mapped));
+
+        Path second = ProjectCatalogSnapshot.nextGeneration(pointer);
+        assertEquals(dir.resolve("catalog.snap.2"), second);
+        SortedMap<Integer, Project> changes = new TreeMap<>();
+        changes.put(5, project(5, "Box", "1"));
+        mapped.writeMerged(second, changes);
+        ProjectCatalogSnapshot.publish(pointer, second);
+
+        assertEquals(List.of("2 Shelf", "5 Box"), describe(ProjectCatalogSnapshot.openCurrent(pointer)));
+        /* The old mapping still reads the first generation. */
+        assertEquals(List.of("2 Shelf"), describe(mapped));
+        assertFalse(Files.exists(first));
+    }
+
+    @Test
+    void publishRejectsAFileThatIsNotAGeneration() throws IOException {
+        Path pointer = dir.resolve("catalog.snap");
+        Path other = dir.resolve("other.snap");
+        ProjectCatalogSnapshot.write(other, Collections.emptyIterator());
+
+        assertThrows(IllegalArgumentException.class, () -> ProjectCatalogSnapshot.publish(pointer, other));
+    }
+
+    @Test
+    void openRejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("other.snap");
+        Files.write(file, new byte[32]);
+
+        assertThrows(IOException.class, () -> ProjectCatalogSnapshot.open(file));
+    }
+
+    private static List<String> describe(ProjectCatalogSnapshot snapshot) {
+        return describe(snapshot.summaries());
+    }
+
+    private static List<String> describe(List<ProjectSummary> summaries) {
+        return summaries.stream()
+                .map(summary -> summary.getProjectId() + " " + summary.getProjectName())
+                .toList();
+    }
+
+    private static Project project(int projectId, String name, String estimatedHours) {
+        Project project = new Project();
+        project.setProjectId(projectId);
+        project.setProjectName(name);
+        project.setEstimatedHours(estimatedHours == null ? null : new BigDecimal(estimatedHours));
+        project.setActualHours(BigDecimal.ONE);
+        project.setDifficulty(4);
+        return project;
+    }
+}
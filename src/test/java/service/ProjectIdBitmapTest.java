@@ -0,0 +1,140 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectIdBitmapTest {
+    /* Spans several 65536-ID groups, some dense enough to switch to bitmap containers. */
+    private static final int MAX_ID = 200_000;
+
+    @Test
+    void addRemoveAndContains() {
+        ProjectIdBitmap bitmap = ProjectIdBitmap.of(1, 70_000, 5);
+
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(2));
+        assertEquals(3, bitmap.cardinality());
+
+        bitmap.remove(70_000);
+        bitmap.remove(70_000);
+        bitmap.remove(99);
+
+        assertFalse(bitmap.contains(70_000));
+        assertEquals(2, bitmap.cardinality());
+        assertArrayEquals(new int[]{1, 5}, toArray(bitmap));
+    }
+
+    @Test
+    void matchesABitSetThroughAddsAndRemoves() {
+        Random random = new Random(42);
+        ProjectIdBitmap bitmap = new ProjectIdBitmap();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 100_000; i++) {
+            int projectId = random.nextInt(MAX_ID);
+            if (random.nextInt(4) == 0) {
+                bitmap.remove(projectId);
+                expected.clear(projectId);
+            } else {
+                bitmap.add(projectId);
+                expected.set(projectId);
+            }
+        }
+
+        assertEquals(expected.cardinality(), bitmap.cardinality());
+        assertArrayEquals(expected.stream().toArray(), toArray(bitmap));
+    }
+
+    @Test
+    void setOperationsMatchABitSet() {
+        Random random = new Random(7);
+        for (int density : new int[]{100, 10_000, 150_000}) {
+            BitSet left = randomBits(random, density);
+            BitSet right = randomBits(random, density / 2);
+            ProjectIdBitmap leftBitmap = toBitmap(left);
+            ProjectIdBitmap rightBitmap = toBitmap(right);
+
+            BitSet and = (BitSet) left.clone();
+            and.and(right);
+            BitSet or = (BitSet) left.clone();
+            or.or(right);
+            BitSet andNot = (BitSet) left.clone();
+            andNot.andNot(right);
+
+            assertArrayEquals(and.stream().toArray(), toArray(leftBitmap.and(rightBitmap)));
+            assertArrayEquals(or.stream().toArray(), toArray(leftBitmap.or(rightBitmap)));
+            assertArrayEquals(andNot.stream().toArray(), toArray(leftBitmap.andNot(rightBitmap)));
+            /* The operands are left as they were. */
+            assertArrayEquals(left.stream().toArray(), toArray(leftBitmap));
+            assertArrayEquals(right.stream().toArray(), toArray(rightBitmap));
+        }
+    }
+
+    @Test
+    void copyIsIndependent() {
+        ProjectIdBitmap bitmap = ProjectIdBitmap.of(1, 2, 3);
+        ProjectIdBitmap copy = bitmap.copy();
+
+        copy.add(4);
+        bitmap.remove(1);
+
+        assertArrayEquals(new int[]{2, 3}, toArray(bitmap));
+        assertArrayEquals(new int[]{1, 2, 3, 4}, toArray(copy));
+    }
+
+    @Test
+    void pagesVisitEveryIdOnceInOrder() {
+        BitSet bits = randomBits(new Random(3), 20_000);
+        ProjectIdBitmap bitmap = toBitmap(bits);
+
+        List<Integer> seen = new ArrayList<>();
+        int[] page = bitmap.page(-1, 999);
+        while (page.length > 0) {
+            for (int projectId : page) {
+                seen.add(projectId);
+            }
+            page = bitmap.page(page[page.length - 1], 999);
+        }
+
+        assertEquals(bits.stream().boxed().toList(), seen);
+    }
+
+    @Test
+    void pageBoundaries() {
+        ProjectIdBitmap bitmap = ProjectIdBitmap.of(10, 65_535, 65_536, Integer.MAX_VALUE);
+
+        assertArrayEquals(new int[]{65_535, 65_536}, bitmap.page(10, 2));
+        assertArrayEquals(new int[]{Integer.MAX_VALUE}, bitmap.page(65_536, 10));
+        assertArrayEquals(new int[0], bitmap.page(Integer.MAX_VALUE, 10));
+        assertArrayEquals(new int[0], bitmap.page(-1, 0));
+        assertArrayEquals(new int[0], new ProjectIdBitmap().page(-1, Integer.MAX_VALUE));
+    }
+
+    private static BitSet randomBits(Random random, int count) {
+        BitSet bits = new BitSet();
+        for (int i = 0; i < count; i++) {
+            bits.set(random.nextInt(MAX_ID));
+        }
+        return bits;
+    }
+
+    private static ProjectIdBitmap toBitmap(BitSet bits) {
+        ProjectIdBitmap bitmap = new ProjectIdBitmap();
+        bits.stream().forEach(bitmap::add);
+        return bitmap;
+    }
+
+    private static int[] toArray(ProjectIdBitmap bitmap) {
+        List<Integer> ids = new ArrayList<>();
+        bitmap.forEach(ids::add);
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
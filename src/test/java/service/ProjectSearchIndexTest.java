@@ -0,0 +1,164 @@
+package service;
+
+import entity.Project;
+import entity.Step;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectSearchIndexTest {
+    private final ProjectSearchIndex index = new ProjectSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.indexProject(project(1, "Oak bookshelf", "Sand the shelf boards.", "Cut the oak", "Stain it"));
+        index.indexProject(project(2, "Garden bench", "Uses leftover oak from the bookshelf."));
+        index.indexProject(project(3, "Birdhouse", "A small pine box.", "Cut the pine"));
+    }
+
+    @Test
+    void tokenizeDropsStopWordsAndSingleLetters() {
+        assertEquals(List.of("cut", "oak", "2x4", "boards"), ProjectSearchIndex.tokenize("Cut the OAK, a 2x4 & boards!"));
+    }
+
+    @Test
+    void searchNeedsEveryWord() {
+        assertEquals(List.of(1, 2), ids(index.search("oak bookshelf", 10)));
+        assertEquals(List.of(1), ids(index.search("oak stain", 10)));
+        assertEquals(List.of(), ids(index.search("oak walnut", 10)));
+        assertEquals(List.of(), ids(index.search("the", 10)));
+    }
+
+    @Test
+    void nameMatchesRankAboveNotesMatches() {
+        List<ProjectSearchIndex.SearchHit> hits = index.search("bookshelf", 10);
+
+        assertEquals(List.of(1, 2), ids(hits));
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void limitKeepsTheBestHits() {
+        List<ProjectSearchIndex.SearchHit> all = index.search("cut", 10);
+
+        assertEquals(2, all.size());
+        assertEquals(all.subList(0, 1), index.search("cut", 1));
+        assertEquals(List.of(), index.search("cut", 0));
+    }
+
+    @Test
+    void updateProjectDetailsKeepsTheSteps() {
+        index.updateProjectDetails(project(1, "Walnut bookshelf", null));
+
+        assertEquals(List.of(), ids(index.search("boards", 10)));
+        assertEquals(List.of(), ids(index.search("shelf", 10)));
+        assertEquals(List.of(1), ids(index.search("walnut stain", 10)));
+    }
+
+    @Test
+    void stepsCanBeAddedAndRemoved() {
+        Step varnish = step(3, "Varnish the roof");
+
+        index.indexSteps(3, List.of(varnish));
+        assertEquals(List.of(3), ids(index.search("varnish", 10)));
+
+        index.unindexSteps(3, List.of(varnish));
+        assertEquals(List.of(), ids(index.search("varnish", 10)));
+        assertEquals(List.of(3), ids(index.search("pine", 10)));
+    }
+
+    @Test
+    void unindexingMoreThanWasIndexedLeavesNoNegativeCounts() {
+        index.unindexSteps(1, List.of(step(1, "Stain stain, then varnish")));
+
+        assertEquals(List.of(), ids(index.search("stain", 10)));
+        assertEquals(List.of(1), ids(index.search("oak", 10).subList(0, 1)));
+
+        index.indexSteps(1, List.of(step(1, "Stain and varnish it")));
+        assertEquals(List.of(1), ids(index.search("stain varnish", 10)));
+    }
+
+    @Test
+    void removedProjectIsNotFound() {
+        index.removeProject(1);
+        index.removeProject(1);
+
+        assertEquals(List.of(2), ids(index.search("oak", 10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void rebuildReplacesTheIndex() {
+        index.rebuild(Stream.of(project(5, "Toy chest", null)), Stream.of(step(5, "Sand the lid"), step(6, "Ignored")));
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(5), ids(index.search("lid", 10)));
+        assertEquals(List.of(), ids(index.search("ignored", 10)));
+        assertEquals(List.of(), ids(index.search("oak", 10)));
+    }
+
+    @Test
+    void saveAndLoadRoundTrip(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("search.idx");
+        index.save(file, "3:7:12");
+
+        ProjectSearchIndex loaded = new ProjectSearchIndex();
+        loaded.load(file, "3:7:12");
+
+        assertEquals(index.size(), loaded.size());
+        for (String query : List.of("oak", "bookshelf", "cut", "pine box", "stain")) {
+            assertEquals(index.search(query, 10), loaded.search(query, 10), query);
+        }
+    }
+
+    @Test
+    void loadRejectsOtherFiles(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("other.idx");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThrows(IOException.class, () -> index.load(file, "3:7:12"));
+    }
+
+    @Test
+    void loadRejectsAFileSavedAtAnotherStampAndKeepsTheIndex(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("search.idx");
+        index.save(file, "3:7:12");
+        ProjectSearchIndex other = new ProjectSearchIndex();
+        other.rebuild(Stream.of(project(5, "Toy chest", null)), Stream.empty());
+
+        assertThrows(IOException.class, () -> other.load(file, "3:7:13"));
+        assertEquals(1, other.size());
+    }
+
+    private static List<Integer> ids(List<ProjectSearchIndex.SearchHit> hits) {
+        return hits.stream().map(ProjectSearchIndex.SearchHit::projectId).toList();
+    }
+
+    private static Project project(int projectId, String name, String notes, String... stepTexts) {
+        Project project = new Project();
+        project.setProjectId(projectId);
+        project.setProjectName(name);
+        project.setNotes(notes);
+        for (String text : stepTexts) {
+            project.getSteps().add(step(projectId, text));
+        }
+        return project;
+    }
+
+    private static Step step(int projectId, String text) {
+        Step step = new Step();
+        step.setProjectId(projectId);
+        step.setStepText(text);
+        return step;
+    }
+}
@@ -0,0 +1,175 @@
+package service;
+
+import entity.Project;
+import entity.ProjectSummary;
+import entity.Step;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import projects.dao.ProjectQuery;
+import projects.dao.TestDatabase;
+import projects.exceptions.DbException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectServiceTest {
+    private static final String SEARCH_INDEX_FILE = "projects.search.indexFile";
+    private static final String CATALOG_SNAPSHOT_FILE = "projects.catalog.snapshotFile";
+    private static final String CATALOG_REWRITE_AFTER_CHANGES = "projects.catalog.rewriteAfterChanges";
+    private static final String WRITE_BEHIND_INTERVAL = "projects.writeBehind.intervalMillis";
+
+    private final ProjectService projectService = new ProjectService();
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.reset();
+        project = projectService.addProject(TestDatabase.newProject("Bookshelf"));
+    }
+
+    @Test
+    void modifyOfAnExistingProjectInvalidatesItsCachedCopy() {
+        cache(project);
+        project.setNotes("Changed");
+
+        assertTrue(projectService.modifyProjectDetails(project));
+        assertNull(projectService.projectCache.get(project.getProjectId()));
+    }
+
+    @Test
+    void modifyOfAMissingProjectThrows() {
+        Project missing = TestDatabase.newProject("Ghost");
+        missing.setProjectId(project.getProjectId() + 1);
+
+        assertThrows(DbException.class, () -> projectService.modifyProjectDetails(missing));
+    }
+
+    @Test
+    void moveStepInvalidatesTheStepsProject() {
+        Step cut = projectService.appendStep(project.getProjectId(), "Cut");
+        projectService.appendStep(project.getProjectId(), "Sand");
+        cache(project);
+
+        projectService.moveStep(cut.getStepId(), null);
+
+        assertNull(projectService.projectCache.get(project.getProjectId()));
+    }
+
+    @Test
+    void moveOfAMissingStepThrows() {
+        assertThrows(NoSuchElementException.class, () -> projectService.moveStep(12345, null));
+    }
+
+    @Test
+    void renumberingInvalidatesTheProject() {
+        projectService.appendStep(project.getProjectId(), "Cut");
+        cache(project);
+        assertNotNull(projectService.projectCache.get(project.getProjectId()));
+
+        projectService.stepDao.renumberSteps(project.getProjectId());
+
+        assertNull(projectService.projectCache.get(project.getProjectId()));
+    }
+
+    @Test
+    void savedSearchIndexIsRebuiltAfterAnotherWriter(@TempDir Path dir) {
+        String indexFile = dir.resolve("search.idx").toString();
+        ProjectService first = withSearchIndexFile(indexFile);
+        first.searchProjects("bookshelf", 10);
+        first.saveSearchIndex();
+        ProjectService reloaded = withSearchIndexFile(indexFile);
+        assertEquals(1, reloaded.searchProjects("bookshelf", 10).size());
+
+        projectService.addProject(TestDatabase.newProject("Garden bench"));
+
+        assertEquals(1, withSearchIndexFile(indexFile).searchProjects("bench", 10).size());
+    }
+
+    @Test
+    void catalogListingsMergeWritesAndPublishAGenerationOnceEnoughHaveQueued(@TempDir Path dir) {
+        Path pointer = dir.resolve("catalog.snap");
+        ProjectService catalog = withCatalogSnapshotFile(pointer.toString(), 2);
+        assertEquals(List.of("Bookshelf"), names(catalog.fetchProjectSummaries()));
+        assertTrue(Files.exists(dir.resolve("catalog.snap.1")));
+
+        Project bench = catalog.addProject(TestDatabase.newProject("Garden bench"));
+        assertEquals(List.of("Bookshelf", "Garden bench"), names(catalog.fetchProjectSummaries()));
+        assertFalse(Files.exists(dir.resolve("catalog.snap.2")));
+
+        catalog.deleteProject(project.getProjectId());
+        assertEquals(List.of("Garden bench"), names(catalog.fetchProjectSummaries()));
+        assertTrue(Files.exists(dir.resolve("catalog.snap.2")));
+        assertFalse(Files.exists(dir.resolve("catalog.snap.1")));
+
+        ProjectService restarted = withCatalogSnapshotFile(pointer.toString(), 2);
+        assertEquals(bench.getProjectId(), restarted.fetchProjectSummaries().get(0).getProjectId());
+    }
+
+    @Test
+    void listingsSeeUpdatesQueuedByWriteBehind() {
+        ProjectService writeBehind = withWriteBehind();
+
+        writeBehind.modifyProjectDetails(renamed("Tall bookshelf"));
+        assertEquals(List.of("Tall bookshelf"), names(writeBehind.fetchProjectSummaries()));
+
+        writeBehind.modifyProjectDetails(renamed("Oak bookshelf"));
+        assertEquals("Oak bookshelf", writeBehind.fetchAllProjects().get(0).getProjectName());
+
+        writeBehind.modifyProjectDetails(renamed("Pine bookshelf"));
+        assertEquals("Pine bookshelf", writeBehind.findProjects(new ProjectQuery()).get(0).getProjectName());
+    }
+
+    private Project renamed(String projectName) {
+        Project renamed = TestDatabase.newProject(projectName);
+        renamed.setProjectId(project.getProjectId());
+        return renamed;
+    }
+
+    private static ProjectService withWriteBehind() {
+        System.setProperty(WRITE_BEHIND_INTERVAL, Long.toString(TimeUnit.HOURS.toMillis(1)));
+        try {
+            return new ProjectService();
+        } finally {
+            System.clearProperty(WRITE_BEHIND_INTERVAL);
+        }
+    }
+
+    private static ProjectService withCatalogSnapshotFile(String snapshotFile, int rewriteAfterChanges) {
+        System.setProperty(CATALOG_SNAPSHOT_FILE, snapshotFile);
+        System.setProperty(CATALOG_REWRITE_AFTER_CHANGES, Integer.toString(rewriteAfterChanges));
+        try {
+            return new ProjectService();
+        } finally {
+            System.clearProperty(CATALOG_SNAPSHOT_FILE);
+            System.clearProperty(CATALOG_REWRITE_AFTER_CHANGES);
+        }
+    }
+
+    private static List<String> names(List<ProjectSummary> summaries) {
+        return summaries.stream().map(ProjectSummary::getProjectName).toList();
+    }
+
+    private static ProjectService withSearchIndexFile(String indexFile) {
+        System.setProperty(SEARCH_INDEX_FILE, indexFile);
+        try {
+            return new ProjectService();
+        } finally {
+            System.clearProperty(SEARCH_INDEX_FILE);
+        }
+    }
+
+    private void cache(Project project) {
+        projectService.projectCache.put(project, projectService.projectCache.startLoad());
+    }
+}
@@ -0,0 +1,185 @@
+package service;
+
+import entity.Project;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import projects.dao.ProjectDao;
+import projects.exceptions.DbException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectWriteBehindTest {
+    private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+    private final RecordingProjectDao projectDao = new RecordingProjectDao();
+    private final List<List<Integer>> flushed = new ArrayList<>();
+    private final List<Integer> dropped = new ArrayList<>();
+    private ProjectWriteBehind writeBehind = ProjectWriteBehind.start(projectDao, NEVER, 100, 2,
+            (batch, modified) -> flushed.add(modified), (project, e) -> dropped.add(project.getProjectId()));
+
+    @AfterEach
+    void tearDown() {
+        projectDao.failures = 0;
+        projectDao.rejected = Set.of();
+        writeBehind.close();
+    }
+
+    @Test
+    void updatesToOneProjectAreCoalesced() {
+        writeBehind.enqueue(project(1, "First"));
+        writeBehind.enqueue(project(2, "Other"));
+        writeBehind.enqueue(project(1, "Second"));
+
+        assertEquals(2, writeBehind.getPendingCount());
+        assertTrue(writeBehind.isPending(1));
+        writeBehind.flush();
+
+        assertEquals(List.of(List.of("Second", "Other")), projectDao.names());
+        assertEquals(List.of(List.of(1, 2)), flushed);
+        assertFalse(writeBehind.isPending(1));
+    }
+
+    @Test
+    void queuedCopyIsNotAffectedByTheCaller() {
+        Project project = project(1, "Queued");
+        writeBehind.enqueue(project);
+        project.setProjectName("Changed after enqueue");
+
+        writeBehind.flush();
+
+        assertEquals(List.of(List.of("Queued")), projectDao.names());
+    }
+
+    @Test
+    void failedFlushIsRetriedBehindNewerUpdates() {
+        writeBehind.enqueue(project(1, "Old"));
+        writeBehind.enqueue(project(2, "Kept"));
+        /* The batch, then each update on its own. */
+        projectDao.failures = 3;
+
+        assertThrows(DbException.class, writeBehind::flush);
+        assertEquals(2, writeBehind.getPendingCount());
+        assertTrue(flushed.isEmpty());
+
+        writeBehind.enqueue(project(1, "New"));
+        writeBehind.flush();
+
+        assertEquals(List.of(List.of("New", "Kept")), projectDao.names());
+        assertEquals(0, writeBehind.getPendingCount());
+    }
+
+    @Test
+    void aBadUpdateDoesNotHoldBackTheRestOfItsBatch() {
+        projectDao.rejected = Set.of(1);
+        writeBehind.enqueue(project(1, "Bad"));
+        writeBehind.enqueue(project(2, "Two"));
+        writeBehind.enqueue(project(3, "Three"));
+
+        assertThrows(DbException.class, writeBehind::flush);
+
+        assertEquals(List.of(List.of("Two"), List.of("Three")), projectDao.names());
+        assertEquals(List.of(List.of(2, 3)), flushed);
+        assertTrue(writeBehind.isPending(1));
+        assertEquals(1, writeBehind.getPendingCount());
+    }
+
+    @Test
+    void anUpdateThatKeepsFailingIsDroppedAndReported() {
+        projectDao.rejected = Set.of(1);
+        writeBehind.enqueue(project(1, "Bad"));
+
+        assertThrows(DbException.class, writeBehind::flush);
+        assertTrue(dropped.isEmpty());
+        assertThrows(DbException.class, writeBehind::flush);
+
+        assertEquals(List.of(1), dropped);
+        assertFalse(writeBehind.hasPending());
+    }
+
+    @Test
+    void aNewerUpdateStartsItsAttemptsAgain() {
+        projectDao.rejected = Set.of(1);
+        writeBehind.enqueue(project(1, "Bad"));
+        assertThrows(DbException.class, writeBehind::flush);
+
+        writeBehind.enqueue(project(1, "Also bad"));
+        assertThrows(DbException.class, writeBehind::flush);
+
+        assertTrue(dropped.isEmpty());
+        assertTrue(writeBehind.isPending(1));
+    }
+
+    @Test
+    void flushOfAnEmptyBufferWritesNothing() {
+        writeBehind.flush();
+
+        assertTrue(projectDao.batches.isEmpty());
+    }
+
+    @Test
+    void reachingMaxPendingFlushesInTheBackground() throws InterruptedException {
+        writeBehind.close();
+        CountDownLatch written = new CountDownLatch(1);
+        writeBehind = ProjectWriteBehind.start(projectDao, NEVER, 2, 2, (batch, modified) -> written.countDown(),
+                (project, e) -> dropped.add(project.getProjectId()));
+
+        writeBehind.enqueue(project(1, "One"));
+        writeBehind.enqueue(project(2, "Two"));
+
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of("One", "Two")), projectDao.names());
+    }
+
+    @Test
+    void closeFlushesWhatIsLeft() {
+        writeBehind.enqueue(project(1, "Last"));
+
+        writeBehind.close();
+
+        assertEquals(List.of(List.of("Last")), projectDao.names());
+    }
+
+    private static Project project(int projectId, String name) {
+        Project project = new Project();
+        project.setProjectId(projectId);
+        project.setProjectName(name);
+        return project;
+    }
+
+    /*
+     * Records each batch instead of writing it, failing the next {@code failures} calls and any
+     * batch that holds a {@code rejected} project ID.
+     */
+    private static class RecordingProjectDao extends ProjectDao {
+        private final List<List<Project>> batches = new ArrayList<>();
+        private volatile int failures;
+        private volatile Set<Integer> rejected = Set.of();
+
+        @Override
+        public synchronized List<Integer> modifyProjectsDetails(Collection<Project> projects) {
+            if (failures > 0) {
+                failures--;
+                throw new DbException("Simulated failure");
+            }
+            if (projects.stream().map(Project::getProjectId).anyMatch(rejected::contains)) {
+                throw new DbException("Simulated bad update");
+            }
+            batches.add(new ArrayList<>(projects));
+            return projects.stream().map(Project::getProjectId).toList();
+        }
+
+        synchronized List<List<String>> names() {
+            return batches.stream().map(batch -> batch.stream().map(Project::getProjectName).toList()).toList();
+        }
+    }
+}